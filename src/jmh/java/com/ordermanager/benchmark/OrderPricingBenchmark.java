@@ -0,0 +1,94 @@
+package com.ordermanager.benchmark;
+
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.service.catalog.ProductCatalog;
+import com.ordermanager.service.pricing.OrderPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing the lines of a large order: {@code BigDecimal} arithmetic with the subtotal computed again
+ * by the entity callback, as orders used to be priced, against the {@link OrderPricing} minor-unit
+ * arithmetic. Run it with {@code -prof gc}; {@code gc.alloc.rate.norm} is the bytes allocated per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    @Param({"1000"})
+    public int lines;
+
+    private OrderPricing pricing;
+    private List<ProductCatalog.Entry> products;
+    private List<OrderItem> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pricing = new OrderPricing("USD");
+        products = new ArrayList<>();
+        items = new ArrayList<>();
+
+        Random random = new Random(42);
+        for (int i = 0; i < lines; i++) {
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            products.add(new ProductCatalog.Entry(UUID.randomUUID(), "Product " + i, price,
+                    pricing.priceToMinorUnits(price), "Category", 0));
+
+            OrderItem item = new OrderItem();
+            item.setQuantity(1 + random.nextInt(20));
+            items.add(item);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal price = products.get(i).price();
+            OrderItem item = items.get(i);
+            item.setUnitPrice(price);
+            item.setSubtotal(price.multiply(BigDecimal.valueOf(item.getQuantity())));
+            totalAmount = totalAmount.add(item.getSubtotal());
+        }
+        // what the @PrePersist callback did for every line
+        for (OrderItem item : items) {
+            item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return totalAmount;
+    }
+
+    @Benchmark
+    public BigDecimal minorUnits() {
+        long totalAmount = 0;
+        for (int i = 0; i < lines; i++) {
+            ProductCatalog.Entry product = products.get(i);
+            OrderItem item = items.get(i);
+            long subtotal = pricing.lineTotal(product.unitPrice(), item.getQuantity());
+            item.setUnitPrice(product.price());
+            item.setSubtotal(pricing.toAmount(subtotal));
+            totalAmount = pricing.add(totalAmount, subtotal);
+        }
+        return pricing.toAmount(totalAmount);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ordermanager.benchmark;
+
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-caller latency of the {@link OrderService} operations against a seeded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"1000"})
+    public int products;
+
+    @Param({"20000"})
+    public int orders;
+
+    private SeededApplication application;
+    private OrderService orderService;
+    private List<UUID> orderIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = SeededApplication.start("optimistic", products, orders);
+        orderService = application.getBean(OrderService.class);
+
+        orderIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            orderIds.add(orderService.createOrder(newOrder()).getOrderId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(newOrder());
+    }
+
+    @Benchmark
+    public Order updateOrder() {
+        UUID orderId = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+        return orderService.updateOrder(orderId, newOrder());
+    }
+
+    /**
+     * Deletes an order and creates its replacement, so the order pool stays the same size; subtract
+     * {@link #createOrder()} for the cost of the delete alone.
+     */
+    @Benchmark
+    public Order deleteAndRecreateOrder() {
+        int slot = ThreadLocalRandom.current().nextInt(orderIds.size());
+        orderService.deleteOrder(orderIds.get(slot));
+        Order replacement = orderService.createOrder(newOrder());
+        orderIds.set(slot, replacement.getOrderId());
+        return replacement;
+    }
+
+    @Benchmark
+    public List<Order> searchOrdersByNameAndDescription() {
+        int product = ThreadLocalRandom.current().nextInt(application.productCount());
+        return orderService.searchOrdersByNameAndDescription("Product " + product, "category");
+    }
+
+    @Benchmark
+    public List<Order> filterOrdersByDateRangeOfOneDay() {
+        int day = 1 + ThreadLocalRandom.current().nextInt(SeededApplication.HISTORY_DAYS - 1);
+        LocalDateTime start = SeededApplication.HISTORY_END.minusDays(day);
+        return orderService.filterOrdersByDateRange(start.toString(), start.plusDays(1).toString());
+    }
+
+    private Order newOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order();
+        order.setStatus("NEW");
+        order.setShippingAddress("1 Benchmark Way");
+        order.setPaymentMethod("card");
+
+        List<OrderItem> items = new ArrayList<>();
+        int lines = 1 + random.nextInt(3);
+        for (int line = 0; line < lines; line++) {
+            OrderItem item = new OrderItem();
+            item.setProductName(application.pickProductName(random, 0));
+            item.setQuantity(1 + random.nextInt(3));
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
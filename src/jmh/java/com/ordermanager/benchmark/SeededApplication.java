@@ -0,0 +1,154 @@
+package com.ordermanager.benchmark;
+
+import com.ordermanager.OrderManagerApplication;
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.OrderRepository;
+import com.ordermanager.repository.ProductRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
+
+/**
+ * Boots the application without a web server on an embedded H2 database that already holds a catalog
+ * and an order history, so that the in-memory indexes warm up from the seeded data like they would in
+ * production.
+ * <p>
+ * The data is written by a first, throwaway context that also creates the schema; the context handed
+ * to the benchmark then starts against the populated database.
+ */
+final class SeededApplication {
+
+    static final int HOT_SKUS = 5;
+    static final int HISTORY_DAYS = 90;
+    static final LocalDateTime HISTORY_END = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static final int CHUNK = 500;
+
+    private final ConfigurableApplicationContext context;
+    private final List<String> productNames;
+
+    private SeededApplication(ConfigurableApplicationContext context, List<String> productNames) {
+        this.context = context;
+        this.productNames = productNames;
+    }
+
+    static SeededApplication start(String engine, int products, int orders) {
+        String url = "jdbc:h2:mem:jmh-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        List<String> productNames;
+        try (ConfigurableApplicationContext seeding = boot(url, engine, "create")) {
+            productNames = seed(seeding, products, orders);
+        }
+        return new SeededApplication(boot(url, engine, "none"), productNames);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Picks a product name: with probability {@code hotSkuShare} one of the first {@link #HOT_SKUS}
+     * products, otherwise any product of the catalog.
+     */
+    String pickProductName(RandomGenerator random, double hotSkuShare) {
+        int index = random.nextDouble() < hotSkuShare
+                ? random.nextInt(HOT_SKUS)
+                : random.nextInt(productNames.size());
+        return productNames.get(index);
+    }
+
+    int productCount() {
+        return productNames.size();
+    }
+
+    void close() {
+        context.close();
+    }
+
+    private static ConfigurableApplicationContext boot(String url, String engine, String ddlAuto) {
+        return new SpringApplicationBuilder(OrderManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                // arguments, unlike default properties, take precedence over application.properties
+                .run("--spring.datasource.url=" + url,
+                        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--order-manager.stock.engine=" + engine);
+    }
+
+    private static List<String> seed(ConfigurableApplicationContext context, int productCount, int orderCount) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        Random random = new Random(42);
+
+        List<Product> catalog = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i += CHUNK) {
+            int from = i;
+            catalog.addAll(transactionTemplate.execute(status -> {
+                List<Product> chunk = new ArrayList<>();
+                for (int n = from; n < Math.min(from + CHUNK, productCount); n++) {
+                    Product product = new Product();
+                    product.setName("Product " + n);
+                    product.setDescription("Description of product " + n + " in category " + (n % 20));
+                    product.setCategory("Category " + (n % 20));
+                    product.setPrice(BigDecimal.valueOf(100 + random.nextInt(10_000), 2));
+                    product.setInventoryCount(1_000_000_000);
+                    chunk.add(product);
+                }
+                return productRepository.saveAll(chunk);
+            }));
+        }
+
+        long historySeconds = HISTORY_DAYS * 24L * 3600;
+        for (int i = 0; i < orderCount; i += CHUNK) {
+            int from = i;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Order> chunk = new ArrayList<>();
+                for (int n = from; n < Math.min(from + CHUNK, orderCount); n++) {
+                    chunk.add(historicalOrder(catalog, random, HISTORY_END.minusSeconds(random.nextLong(historySeconds))));
+                }
+                orderRepository.saveAll(chunk);
+            });
+        }
+
+        return catalog.stream().map(Product::getName).toList();
+    }
+
+    private static Order historicalOrder(List<Product> catalog, Random random, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setStatus("DELIVERED");
+        order.setShippingAddress("1 Seed Street");
+        order.setPaymentMethod("card");
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(createdAt);
+
+        List<OrderItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        int lines = 1 + random.nextInt(3);
+        for (int line = 0; line < lines; line++) {
+            Product product = catalog.get(random.nextInt(catalog.size()));
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1 + random.nextInt(3));
+            item.setUnitPrice(product.getPrice());
+            item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            total = total.add(item.getSubtotal());
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        order.setTotalAmount(total);
+        return order;
+    }
+}
@@ -0,0 +1,111 @@
+package com.ordermanager.benchmark;
+
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.service.OrderService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order creation throughput for every stock engine, with 1, 4 and 16 concurrent callers and a growing
+ * share of orders going to a handful of hot SKUs.
+ * <p>
+ * Orders that lose a race for a product row (optimistic version clash or lock failure) are counted as
+ * {@code conflicts} rather than as completed operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StockContentionBenchmark {
+
+    @Param({"optimistic", "atomic", "ledger", "sharded", "movements"})
+    public String engine;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double hotSkuShare;
+
+    @Param({"1000"})
+    public int products;
+
+    @Param({"20000"})
+    public int orders;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        public long conflicts;
+    }
+
+    private SeededApplication application;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = SeededApplication.start(engine, products, orders);
+        orderService = application.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void createOrder1Thread(Outcomes outcomes, Blackhole blackhole) {
+        createOrder(outcomes, blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createOrder4Threads(Outcomes outcomes, Blackhole blackhole) {
+        createOrder(outcomes, blackhole);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void createOrder16Threads(Outcomes outcomes, Blackhole blackhole) {
+        createOrder(outcomes, blackhole);
+    }
+
+    private void createOrder(Outcomes outcomes, Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        OrderItem item = new OrderItem();
+        item.setProductName(application.pickProductName(random, hotSkuShare));
+        item.setQuantity(1);
+
+        Order order = new Order();
+        order.setStatus("NEW");
+        order.setShippingAddress("1 Benchmark Way");
+        order.setPaymentMethod("card");
+        order.setOrderItems(List.of(item));
+        try {
+            blackhole.consume(orderService.createOrder(order));
+        } catch (IllegalStateException | ConcurrencyFailureException e) {
+            outcomes.conflicts++;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ordermanager.benchmark;
+
+import com.ordermanager.model.id.UuidV7;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Insert throughput into a table keyed like {@code orders}, with random (v4) against time-ordered (v7)
+ * UUID primary keys, once the table already holds millions of rows.
+ * <p>
+ * Each operation inserts and commits one batch, so rows per second is ops/s times {@code batchSize}. The
+ * database lives in a file. At the end of the trial, the file size after a clean shutdown is
+ * printed as {@code db-bytes}. Rows are stored in insertion order either way, so the difference between
+ * the two key types is the primary key index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UuidKeyBenchmark {
+
+    @Param({"random", "v7"})
+    public String keys;
+
+    @Param({"2000000"})
+    public int seedRows;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Inserted {
+
+        public long rows;
+    }
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> keySupplier;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        keySupplier = switch (keys) {
+            case "random" -> UUID::randomUUID;
+            case "v7" -> UuidV7::next;
+            default -> throw new IllegalArgumentException("Unknown key type: " + keys);
+        };
+
+        directory = Files.createTempDirectory("uuid-key-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("keys"), "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (order_id UUID PRIMARY KEY, created_at TIMESTAMP NOT NULL, " +
+                    "total_amount DECIMAL(38, 2) NOT NULL)");
+        }
+        connection.commit();
+
+        insert = connection.prepareStatement("INSERT INTO orders (order_id, created_at, total_amount) VALUES (?, ?, ?)");
+        for (int seeded = 0; seeded < seedRows; seeded += batchSize) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        long rows;
+        try (Statement statement = connection.createStatement()) {
+            var result = statement.executeQuery("SELECT COUNT(*) FROM orders");
+            result.next();
+            rows = result.getLong(1);
+            statement.execute("SHUTDOWN");
+        }
+        long bytes = Files.size(directory.resolve("keys.mv.db"));
+        System.out.printf("%n%s keys: %d rows, db-bytes=%d (%.1f bytes/row)%n", keys, rows, bytes, (double) bytes / rows);
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void insertBatch(Inserted inserted) throws SQLException {
+        insertBatch();
+        inserted.rows += batchSize;
+    }
+
+    private void insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < batchSize; i++) {
+            insert.setObject(1, keySupplier.get());
+            insert.setTimestamp(2, now);
+            insert.setBigDecimal(3, BigDecimal.valueOf(i, 2));
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ordermanager.controller;
+
+import com.ordermanager.dto.DailyOrderAggregateDTO;
+import com.ordermanager.service.analytics.BestSellerTracker;
+import com.ordermanager.service.analytics.OrderAnalytics;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final OrderAnalytics orderAnalytics;
+    private final BestSellerTracker bestSellerTracker;
+
+    public AnalyticsController(OrderAnalytics orderAnalytics, BestSellerTracker bestSellerTracker) {
+        this.orderAnalytics = orderAnalytics;
+        this.bestSellerTracker = bestSellerTracker;
+    }
+
+    @GetMapping("/orders/daily")
+    public ResponseEntity<List<DailyOrderAggregateDTO>> getDailyOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) UUID productId) {
+        return ResponseEntity.ok(orderAnalytics.daily(from, to, status, paymentMethod, productId));
+    }
+
+    @PostMapping("/orders/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildDailyOrders() {
+        return ResponseEntity.ok(Map.of("buckets", orderAnalytics.rebuild()));
+    }
+
+    @GetMapping("/products/top")
+    public ResponseEntity<BestSellerTracker.TopSellers> getTopSellers(@RequestParam(defaultValue = "UNITS") BestSellerTracker.Ranking by,
+                                                                      @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bestSellerTracker.topSellers(by, limit));
+    }
+
+    @GetMapping("/products/stock-out-risk")
+    public ResponseEntity<List<BestSellerTracker.StockOutRisk>> getStockOutRisks(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bestSellerTracker.stockOutRisks(limit));
+    }
+}
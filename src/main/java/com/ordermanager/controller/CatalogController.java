@@ -0,0 +1,27 @@
+package com.ordermanager.controller;
+
+import com.ordermanager.service.catalog.ProductCatalog;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogController {
+
+    private final ProductCatalog productCatalog;
+
+    public CatalogController(ProductCatalog productCatalog) {
+        this.productCatalog = productCatalog;
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, ProductCatalog.Stats>> getCacheStats() {
+        return ResponseEntity.ok(Map.of(
+                "byId", productCatalog.byIdStats(),
+                "byName", productCatalog.byNameStats()));
+    }
+}
@@ -2,12 +2,32 @@ package com.ordermanager.controller;
 
 import com.ordermanager.dto.DateRangeRequestDTO;
 import com.ordermanager.dto.NameDescriptionRequestDTO;
+import com.ordermanager.dto.OrderDetailDTO;
+import com.ordermanager.dto.OrderIntakeDTO;
+import com.ordermanager.dto.OrderPageDTO;
+import com.ordermanager.dto.OrderSummaryDTO;
 import com.ordermanager.model.Order;
 import com.ordermanager.service.OrderService;
+import com.ordermanager.service.idempotency.IdempotencyStore;
+import com.ordermanager.service.intake.OrderIntake;
+import com.ordermanager.service.search.TimeBucket;
+import com.ordermanager.web.QueryBudget;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -15,19 +35,39 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIntake orderIntake;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderIntake orderIntake, IdempotencyStore idempotencyStore,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderIntake = orderIntake;
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    @QueryBudget(1)
+    public ResponseEntity<OrderPageDTO<OrderSummaryDTO>> getOrders(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getOrdersPage(cursor, size));
     }
 
+    /**
+     * Answers {@code If-None-Match} with a {@code 304} when the tag is still current. That costs one version
+     * query, and the order is neither loaded nor serialized.
+     */
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable UUID orderId) {
-        return ResponseEntity.ok(orderService.getOrderById(orderId));
+    @QueryBudget(2)
+    public ResponseEntity<OrderDetailDTO> getOrderById(@PathVariable UUID orderId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(orderService.getOrderETag(orderId))) {
+            // the 304 and its ETag header are already on the response
+            return null;
+        }
+        OrderDetailDTO order = orderService.getOrderById(orderId);
+        return ResponseEntity.ok().eTag(order.getETag()).body(order);
     }
 
     @PostMapping
@@ -35,6 +75,36 @@ public class OrderController {
         return ResponseEntity.ok(orderService.createOrder(order));
     }
 
+    /**
+     * Creates the order once per {@code Idempotency-Key}; retries get the first response back, marked with
+     * {@code Idempotent-Replayed: true}.
+     */
+    @PostMapping(headers = IdempotencyStore.HEADER)
+    public ResponseEntity<String> createOrderIdempotently(@RequestHeader(IdempotencyStore.HEADER) String idempotencyKey,
+                                                          @RequestBody String body) {
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(idempotencyKey, body, () -> {
+            Order created = orderService.createOrder(readOrder(body));
+            return new IdempotencyStore.StoredResponse(HttpStatus.OK.value(), writeJson(created));
+        });
+        return ResponseEntity.status(outcome.response().status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", Boolean.toString(outcome.replayed()))
+                .body(outcome.response().body());
+    }
+
+    @PostMapping("/async")
+    public ResponseEntity<OrderIntakeDTO> submitOrder(@RequestBody Order order) {
+        OrderIntakeDTO submission = orderIntake.submit(order);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/intake/" + submission.getHandle()))
+                .body(submission);
+    }
+
+    @GetMapping("/intake/{handle}")
+    public ResponseEntity<OrderIntakeDTO> getSubmissionStatus(@PathVariable UUID handle) {
+        return ResponseEntity.ok(orderIntake.getStatus(handle));
+    }
+
     @PutMapping("/{orderId}")
     public ResponseEntity<Order> updateOrder(@PathVariable UUID orderId, @RequestBody Order updatedOrder) {
         return ResponseEntity.ok(orderService.updateOrder(orderId, updatedOrder));
@@ -55,4 +125,47 @@ public class OrderController {
     public ResponseEntity<List<Order>> filterOrdersByDateRange(@RequestBody DateRangeRequestDTO dateRangeRequest) {
         return ResponseEntity.ok(orderService.filterOrdersByDateRange(dateRangeRequest.getStartDate(), dateRangeRequest.getEndDate()));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/filter-by-date-range/page")
+    public ResponseEntity<OrderPageDTO<Order>> filterOrdersByDateRangePage(@RequestBody DateRangeRequestDTO dateRangeRequest,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.filterOrdersByDateRangePage(dateRangeRequest.getStartDate(), dateRangeRequest.getEndDate(), cursor, size));
+    }
+
+    @GetMapping(value = "/filter-by-date-range/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamOrdersByDateRange(@RequestBody DateRangeRequestDTO dateRangeRequest) {
+        StreamingResponseBody body = outputStream -> orderService.streamOrdersByDateRange(
+                dateRangeRequest.getStartDate(), dateRangeRequest.getEndDate(), order -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(order));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    @GetMapping("/count-by-date-range")
+    public ResponseEntity<Map<LocalDateTime, Long>> countOrdersByDateRange(@RequestBody DateRangeRequestDTO dateRangeRequest,
+                                                                           @RequestParam(defaultValue = "DAY") TimeBucket granularity) {
+        return ResponseEntity.ok(orderService.countOrdersByDateRange(dateRangeRequest.getStartDate(), dateRangeRequest.getEndDate(), granularity));
+    }
+
+    private Order readOrder(String body) {
+        try {
+            return objectMapper.readValue(body, Order.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed order: " + e.getOriginalMessage());
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ordermanager.controller;
+
+import com.ordermanager.dto.ProductCardDTO;
+import com.ordermanager.service.ProductService;
+import com.ordermanager.web.QueryBudget;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductController {
+
+    private final ProductService productService;
+
+    public ProductController(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @GetMapping
+    @QueryBudget(1)
+    public ResponseEntity<List<ProductCardDTO>> getProducts(@RequestParam(required = false) String category) {
+        return ResponseEntity.ok(productService.getProductCards(category));
+    }
+
+    /**
+     * Answers {@code If-None-Match} with a {@code 304} when the tag is still current, after reading only the
+     * product's version.
+     */
+    @GetMapping("/{productId}")
+    @QueryBudget(2)
+    public ResponseEntity<ProductCardDTO> getProductById(@PathVariable UUID productId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(productService.getProductETag(productId))) {
+            // the 304 and its ETag header are already on the response
+            return null;
+        }
+        ProductCardDTO product = productService.getProductCard(productId);
+        return ResponseEntity.ok().eTag(product.getETag()).body(product);
+    }
+}
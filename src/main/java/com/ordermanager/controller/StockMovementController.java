@@ -0,0 +1,39 @@
+package com.ordermanager.controller;
+
+import com.ordermanager.service.stock.InventoryMovementStockEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stock history of a product, available when the movements engine is active.
+ */
+@RestController
+@RequestMapping("/api/products/{productId}/stock")
+@ConditionalOnProperty(name = "order-manager.stock.engine", havingValue = "movements")
+public class StockMovementController {
+
+    private final InventoryMovementStockEngine stockEngine;
+
+    public StockMovementController(InventoryMovementStockEngine stockEngine) {
+        this.stockEngine = stockEngine;
+    }
+
+    @GetMapping("/movements")
+    public ResponseEntity<List<InventoryMovementStockEngine.Movement>> getMovements(@PathVariable UUID productId,
+                                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(stockEngine.history(productId, limit));
+    }
+
+    @GetMapping("/reconciliation")
+    public ResponseEntity<InventoryMovementStockEngine.Reconciliation> getReconciliation(@PathVariable UUID productId) {
+        return ResponseEntity.ok(stockEngine.reconcile(productId));
+    }
+}
@@ -0,0 +1,6 @@
+package com.ordermanager.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
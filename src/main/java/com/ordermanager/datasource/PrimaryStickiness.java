@@ -0,0 +1,25 @@
+package com.ordermanager.datasource;
+
+/**
+ * Pins the current thread's read-only transactions to the primary, so a client that just wrote reads its
+ * own writes instead of a replica that may not have caught up yet.
+ */
+public final class PrimaryStickiness {
+
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+
+    private PrimaryStickiness() {
+    }
+
+    public static void require() {
+        REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static boolean isRequired() {
+        return REQUIRED.get() != null;
+    }
+
+    public static void clear() {
+        REQUIRED.remove();
+    }
+}
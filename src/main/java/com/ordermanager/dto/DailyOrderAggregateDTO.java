@@ -0,0 +1,60 @@
+package com.ordermanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Totals of one day, order status and payment method. With a {@code productId} the bucket holds that product's
+ * revenue and units sold and an {@code orderCount} of zero; without one it holds how many orders were placed,
+ * each counted once however many lines it has, and no revenue or units.
+ */
+public class DailyOrderAggregateDTO {
+
+    private final LocalDate orderDate;
+    private final String status;
+    private final String paymentMethod;
+    private final UUID productId;
+    private final long orderCount;
+    private final BigDecimal revenue;
+    private final long unitsSold;
+
+    public DailyOrderAggregateDTO(LocalDate orderDate, String status, String paymentMethod, UUID productId,
+                                  long orderCount, BigDecimal revenue, long unitsSold) {
+        this.orderDate = orderDate;
+        this.status = status;
+        this.paymentMethod = paymentMethod;
+        this.productId = productId;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.unitsSold = unitsSold;
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+}
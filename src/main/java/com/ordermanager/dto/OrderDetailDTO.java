@@ -0,0 +1,90 @@
+package com.ordermanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A single order with its lines, each line naming its product.
+ */
+public class OrderDetailDTO {
+
+    private final UUID orderId;
+    private final String status;
+    private final BigDecimal totalAmount;
+    private final String shippingAddress;
+    private final String paymentMethod;
+    private final String notes;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final List<OrderLineDTO> orderItems;
+    private final long version;
+    private final String eTag;
+
+    public OrderDetailDTO(UUID orderId, String status, BigDecimal totalAmount, String shippingAddress,
+                          String paymentMethod, String notes, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          List<OrderLineDTO> orderItems, long version, String eTag) {
+        this.orderId = orderId;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.shippingAddress = shippingAddress;
+        this.paymentMethod = paymentMethod;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.orderItems = orderItems;
+        this.version = version;
+        this.eTag = eTag;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public List<OrderLineDTO> getOrderItems() {
+        return orderItems;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Strong entity tag of this representation, sent as the {@code ETag} header rather than in the body.
+     */
+    @JsonIgnore
+    public String getETag() {
+        return eTag;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ordermanager.dto;
+
+import com.ordermanager.service.intake.IntakeStatus;
+
+import java.util.UUID;
+
+public class OrderIntakeDTO {
+
+    private final UUID handle;
+    private final IntakeStatus status;
+    private final UUID orderId;
+    private final String message;
+
+    public OrderIntakeDTO(UUID handle, IntakeStatus status, UUID orderId, String message) {
+        this.handle = handle;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+    }
+
+    public UUID getHandle() {
+        return handle;
+    }
+
+    public IntakeStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Id of the created order once the submission is {@code ACCEPTED}.
+     */
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Why the submission was {@code REJECTED}.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ordermanager.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class OrderLineDTO {
+
+    private final UUID orderItemId;
+    private final UUID productId;
+    private final String productName;
+    private final int quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal subtotal;
+
+    public OrderLineDTO(UUID orderItemId, UUID productId, String productName, int quantity, BigDecimal unitPrice,
+                        BigDecimal subtotal) {
+        this.orderItemId = orderItemId;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.subtotal = subtotal;
+    }
+
+    public UUID getOrderItemId() {
+        return orderItemId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+}
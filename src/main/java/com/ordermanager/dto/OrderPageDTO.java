@@ -0,0 +1,25 @@
+package com.ordermanager.dto;
+
+import java.util.List;
+
+public class OrderPageDTO<T> {
+
+    private final List<T> orders;
+    private final String nextCursor;
+
+    public OrderPageDTO(List<T> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Opaque token to pass back as {@code cursor} to fetch the next page, or {@code null} on the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ordermanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An order as listed on a page of orders: its header columns and the number of lines, without the lines.
+ */
+public class OrderSummaryDTO {
+
+    private final UUID orderId;
+    private final String status;
+    private final BigDecimal totalAmount;
+    private final String paymentMethod;
+    private final LocalDateTime createdAt;
+    private final int itemCount;
+
+    public OrderSummaryDTO(UUID orderId, String status, BigDecimal totalAmount, String paymentMethod,
+                           LocalDateTime createdAt, int itemCount) {
+        this.orderId = orderId;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+}
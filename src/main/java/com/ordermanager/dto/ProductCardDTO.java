@@ -0,0 +1,66 @@
+package com.ordermanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What a product listing shows of a product. Stock is left out, it depends on the stock engine.
+ */
+public class ProductCardDTO {
+
+    private final UUID productId;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final String category;
+    private final int version;
+
+    public ProductCardDTO(UUID productId, String name, String description, BigDecimal price, String category,
+                          int version) {
+        this.productId = productId;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.category = category;
+        this.version = version;
+    }
+
+    /**
+     * Strong entity tag of the card of a product at {@code version}. The version also moves with stock, so a
+     * stock change invalidates the tag even though the card does not show stock.
+     */
+    public static String eTagOf(int version) {
+        return "\"" + version + "\"";
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return eTagOf(version);
+    }
+}
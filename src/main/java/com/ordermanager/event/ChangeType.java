@@ -0,0 +1,7 @@
+package com.ordermanager.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
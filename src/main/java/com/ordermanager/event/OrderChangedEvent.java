@@ -0,0 +1,26 @@
+package com.ordermanager.event;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code OrderService} inside the transaction that creates, updates or deletes an order.
+ * {@code before} is {@code null} for a new order and {@code after} is {@code null} for a deleted one.
+ */
+public record OrderChangedEvent(ChangeType type, OrderSnapshot before, OrderSnapshot after) {
+
+    public static OrderChangedEvent created(OrderSnapshot after) {
+        return new OrderChangedEvent(ChangeType.CREATED, null, after);
+    }
+
+    public static OrderChangedEvent updated(OrderSnapshot before, OrderSnapshot after) {
+        return new OrderChangedEvent(ChangeType.UPDATED, before, after);
+    }
+
+    public static OrderChangedEvent deleted(OrderSnapshot before) {
+        return new OrderChangedEvent(ChangeType.DELETED, before, null);
+    }
+
+    public UUID orderId() {
+        return after != null ? after.orderId() : before.orderId();
+    }
+}
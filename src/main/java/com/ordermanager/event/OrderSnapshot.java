@@ -0,0 +1,32 @@
+package com.ordermanager.event;
+
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the parts of an order that listeners care about, safe to hand over after the
+ * transaction and the persistence context are gone.
+ */
+public record OrderSnapshot(UUID orderId, LocalDateTime createdAt, String status, String paymentMethod,
+                            BigDecimal totalAmount, List<Line> lines) {
+
+    public record Line(UUID productId, int quantity, BigDecimal subtotal) {
+    }
+
+    public static OrderSnapshot of(Order order) {
+        List<Line> lines = new ArrayList<>();
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                lines.add(new Line(item.getProductId(), item.getQuantity(), item.getSubtotal()));
+            }
+        }
+        return new OrderSnapshot(order.getOrderId(), order.getCreatedAt(), order.getStatus(), order.getPaymentMethod(),
+                order.getTotalAmount(), List.copyOf(lines));
+    }
+}
@@ -0,0 +1,19 @@
+package com.ordermanager.event;
+
+import com.ordermanager.model.Product;
+
+import java.util.UUID;
+
+/**
+ * Published by {@code ProductService} inside the transaction that creates, updates or deletes a product.
+ */
+public record ProductChangedEvent(ChangeType type, UUID productId, String name, String description) {
+
+    public static ProductChangedEvent of(ChangeType type, Product product) {
+        return new ProductChangedEvent(type, product.getProductId(), product.getName(), product.getDescription());
+    }
+
+    public static ProductChangedEvent deleted(UUID productId) {
+        return new ProductChangedEvent(ChangeType.DELETED, productId, null, null);
+    }
+}
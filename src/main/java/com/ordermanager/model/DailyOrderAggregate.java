@@ -0,0 +1,92 @@
+package com.ordermanager.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One day's totals per order status and payment method. A row with a product holds the revenue and units
+ * sold of that product; the row without one holds the number of orders, and nothing else.
+ */
+@Entity
+@Table(name = "daily_order_aggregates", uniqueConstraints = @UniqueConstraint(
+        name = "uk_daily_order_aggregates_bucket",
+        columnNames = {"order_date", "status", "payment_method", "product_id"}))
+public class DailyOrderAggregate {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private UUID aggregateId;
+
+    @Column(name = "order_date", nullable = false, updatable = false)
+    private LocalDate orderDate;
+
+    @Column(name = "status", nullable = false, updatable = false)
+    private String status;
+
+    @Column(name = "payment_method", nullable = false, updatable = false)
+    private String paymentMethod;
+
+    @Column(name = "product_id", updatable = false)
+    private UUID productId;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "revenue", nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+
+    protected DailyOrderAggregate() {
+    }
+
+    public DailyOrderAggregate(LocalDate orderDate, String status, String paymentMethod, UUID productId) {
+        this.orderDate = orderDate;
+        this.status = status;
+        this.paymentMethod = paymentMethod;
+        this.productId = productId;
+    }
+
+    public void add(long orderCount, BigDecimal revenue, long unitsSold) {
+        this.orderCount += orderCount;
+        this.revenue = this.revenue.add(revenue);
+        this.unitsSold += unitsSold;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ordermanager.model;
+
+import com.ordermanager.model.id.UuidV7Id;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * One change to a product's stock, inserted in the transaction that made it and never updated by writers.
+ * The only later write is the snapshot job stamping {@code snapshot_batch} once the movement has been folded
+ * into an {@link InventorySnapshot}; the row itself is kept as history.
+ */
+@Entity
+@Table(name = "inventory_movements", indexes = {
+        @Index(name = "idx_inventory_movements_product_snapshot", columnList = "product_id, snapshot_batch"),
+        @Index(name = "idx_inventory_movements_snapshot_batch", columnList = "snapshot_batch")
+})
+public class InventoryMovement {
+
+    @Id
+    @UuidV7Id
+    @Column(name = "movement_id", nullable = false, updatable = false)
+    private UUID movementId;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, updatable = false, length = 16)
+    private MovementType type;
+
+    @Column(name = "delta", nullable = false, updatable = false)
+    private int delta;
+
+    @Column(name = "snapshot_batch")
+    private UUID snapshotBatch;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt = LocalDateTime.now(UTC);
+
+    protected InventoryMovement() {
+    }
+
+    public InventoryMovement(UUID productId, MovementType type, int delta) {
+        this.productId = productId;
+        this.type = type;
+        this.delta = delta;
+    }
+
+    public UUID getMovementId() {
+        return movementId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public MovementType getType() {
+        return type;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public UUID getSnapshotBatch() {
+        return snapshotBatch;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ordermanager.model;
+
+import com.ordermanager.model.id.UuidV7Id;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * A product's stock as of a snapshot batch: every {@link InventoryMovement} stamped with this batch or an
+ * earlier one is included, later ones are not. Snapshots are only ever inserted; the most recent one per
+ * product (highest id) wins and older ones are pruned by the snapshot job.
+ */
+@Entity
+@Table(name = "inventory_snapshots", indexes = {
+        @Index(name = "idx_inventory_snapshots_product_id", columnList = "product_id, snapshot_id")
+})
+public class InventorySnapshot {
+
+    @Id
+    @UuidV7Id
+    @Column(name = "snapshot_id", nullable = false, updatable = false)
+    private UUID snapshotId;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "stock", nullable = false, updatable = false)
+    private long stock;
+
+    /**
+     * Stock before the first movement was folded, carried forward so the whole history can be replayed.
+     */
+    @Column(name = "opening_stock", nullable = false, updatable = false)
+    private long openingStock;
+
+    @Column(name = "movement_count", nullable = false, updatable = false)
+    private long movementCount;
+
+    @Column(name = "snapshot_batch", updatable = false)
+    private UUID snapshotBatch;
+
+    @Column(name = "taken_at", nullable = false, updatable = false)
+    private LocalDateTime takenAt = LocalDateTime.now(UTC);
+
+    protected InventorySnapshot() {
+    }
+
+    private InventorySnapshot(UUID productId, long stock, long openingStock, long movementCount, UUID snapshotBatch) {
+        this.productId = productId;
+        this.stock = stock;
+        this.openingStock = openingStock;
+        this.movementCount = movementCount;
+        this.snapshotBatch = snapshotBatch;
+    }
+
+    /**
+     * The stock a product had before any movement was recorded for it.
+     */
+    public static InventorySnapshot opening(UUID productId, long stock) {
+        return new InventorySnapshot(productId, stock, stock, 0, null);
+    }
+
+    /**
+     * The snapshot that follows this one once {@code movements} movements summing to {@code delta} have been
+     * folded in under {@code batch}.
+     */
+    public InventorySnapshot next(UUID batch, long delta, long movements) {
+        return new InventorySnapshot(productId, stock + delta, openingStock, movementCount + movements, batch);
+    }
+
+    public UUID getSnapshotId() {
+        return snapshotId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public long getStock() {
+        return stock;
+    }
+
+    public long getOpeningStock() {
+        return openingStock;
+    }
+
+    public long getMovementCount() {
+        return movementCount;
+    }
+
+    public UUID getSnapshotBatch() {
+        return snapshotBatch;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ordermanager.model;
+
+/**
+ * Why an {@link InventoryMovement} changed a product's stock.
+ */
+public enum MovementType {
+    /**
+     * Units taken by an order.
+     */
+    RESERVE,
+    /**
+     * Units given back by an order that was changed or deleted.
+     */
+    RELEASE,
+    /**
+     * Units added when the stock count was raised outside of the order flows.
+     */
+    RESTOCK,
+    /**
+     * Units written off when the stock count was lowered outside of the order flows.
+     */
+    ADJUST
+}
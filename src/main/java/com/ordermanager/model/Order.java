@@ -1,6 +1,7 @@
 package com.ordermanager.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.ordermanager.model.id.UuidV7Id;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,11 +11,11 @@ import java.util.UUID;
 import static java.time.ZoneOffset.UTC;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at_order_id", columnList = "created_at, order_id"))
 public class Order {
 
     @Id
-    @GeneratedValue
+    @UuidV7Id
     @Column(name = "order_id", nullable = false, updatable = false)
     private UUID orderId;
 
@@ -43,6 +44,9 @@ public class Order {
     @JsonManagedReference("order-orderItems")
     private List<OrderItem> orderItems;
 
+    @Version
+    private long version;
+
     public UUID getOrderId() {
         return orderId;
     }
@@ -114,4 +118,8 @@ public class Order {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
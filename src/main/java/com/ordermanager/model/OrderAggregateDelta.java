@@ -0,0 +1,98 @@
+package com.ordermanager.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Change to one {@link DailyOrderAggregate} bucket, written inside the order transaction and folded into
+ * the bucket later, so concurrent orders never contend on the same aggregate row.
+ */
+@Entity
+@Table(name = "order_aggregate_deltas", indexes = {
+        @Index(name = "idx_order_aggregate_deltas_order_date", columnList = "order_date"),
+        @Index(name = "idx_order_aggregate_deltas_fold_batch", columnList = "fold_batch")
+})
+public class OrderAggregateDelta {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "delta_id", nullable = false, updatable = false)
+    private UUID deltaId;
+
+    @Column(name = "order_date", nullable = false, updatable = false)
+    private LocalDate orderDate;
+
+    @Column(name = "status", nullable = false, updatable = false)
+    private String status;
+
+    @Column(name = "payment_method", nullable = false, updatable = false)
+    private String paymentMethod;
+
+    @Column(name = "product_id", updatable = false)
+    private UUID productId;
+
+    @Column(name = "order_count", nullable = false, updatable = false)
+    private long orderCount;
+
+    @Column(name = "revenue", nullable = false, updatable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "units_sold", nullable = false, updatable = false)
+    private long unitsSold;
+
+    @Column(name = "fold_batch")
+    private UUID foldBatch;
+
+    protected OrderAggregateDelta() {
+    }
+
+    public OrderAggregateDelta(LocalDate orderDate, String status, String paymentMethod, UUID productId,
+                               long orderCount, BigDecimal revenue, long unitsSold) {
+        this.orderDate = orderDate;
+        this.status = status;
+        this.paymentMethod = paymentMethod;
+        this.productId = productId;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.unitsSold = unitsSold;
+    }
+
+    public UUID getDeltaId() {
+        return deltaId;
+    }
+
+    public LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public UUID getFoldBatch() {
+        return foldBatch;
+    }
+}
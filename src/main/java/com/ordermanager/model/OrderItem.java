@@ -1,6 +1,7 @@
 package com.ordermanager.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.ordermanager.model.id.UuidV7Id;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
@@ -14,7 +15,7 @@ import static java.time.ZoneOffset.UTC;
 public class OrderItem {
 
     @Id
-    @GeneratedValue
+    @UuidV7Id
     private UUID orderItemId;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -105,9 +106,16 @@ public class OrderItem {
         return this.product.getProductId();
     }
 
+    /**
+     * Lines priced by {@code OrderService} already carry their subtotal; this only fills one in for lines
+     * saved without it.
+     */
     @PrePersist
     @PreUpdate
     private void calculateSubtotal() {
+        if (subtotal != null) {
+            return;
+        }
         if (quantity > 0) {
             this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
         }
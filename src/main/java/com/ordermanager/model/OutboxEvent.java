@@ -0,0 +1,74 @@
+package com.ordermanager.model;
+
+import com.ordermanager.model.id.UuidV7Id;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change to an order or product, inserted in the transaction that made it and deleted once relayed to the
+ * change log. Ids are time-ordered, so reading by id gives roughly commit order, and exactly commit order per
+ * aggregate, since writers of one aggregate hold its row lock.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @UuidV7Id
+    @Column(name = "event_id", nullable = false, updatable = false)
+    private UUID eventId;
+
+    @Column(name = "aggregate_type", nullable = false, updatable = false, length = 32)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private UUID aggregateId;
+
+    @Column(name = "change_type", nullable = false, updatable = false, length = 16)
+    private String changeType;
+
+    @Lob
+    @Column(name = "payload", nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    protected OutboxEvent() {
+    }
+
+    public OutboxEvent(String aggregateType, UUID aggregateId, String changeType, String payload,
+                       LocalDateTime occurredAt) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.changeType = changeType;
+        this.payload = payload;
+        this.occurredAt = occurredAt;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
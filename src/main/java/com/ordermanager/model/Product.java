@@ -1,6 +1,7 @@
 package com.ordermanager.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.ordermanager.model.id.UuidV7Id;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,7 +15,7 @@ import static java.time.ZoneOffset.UTC;
 public class Product {
 
     @Id
-    @GeneratedValue
+    @UuidV7Id
     @Column(name = "product_id", nullable = false, updatable = false)
     private UUID productId;
 
@@ -46,6 +47,12 @@ public class Product {
     @Version
     private int version;
 
+    /**
+     * Counts renames only, unlike {@code version}, which every stock movement bumps too.
+     */
+    @Column(name = "name_version", nullable = false)
+    private int nameVersion;
+
     public UUID getProductId() {
         return productId;
     }
@@ -59,6 +66,9 @@ public class Product {
     }
 
     public void setName(String name) {
+        if (this.name != null && !this.name.equals(name)) {
+            nameVersion++;
+        }
         this.name = name;
     }
 
@@ -117,4 +127,27 @@ public class Product {
     public void setOrderItems(List<OrderItem> orderItems) {
         this.orderItems = orderItems;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * A detached copy of this product with a different inventory count, for reporting a stock figure that
+     * must never be flushed back to the row. Order items are not copied.
+     */
+    public Product withInventoryCount(int inventoryCount) {
+        Product copy = new Product();
+        copy.productId = productId;
+        copy.name = name;
+        copy.description = description;
+        copy.price = price;
+        copy.inventoryCount = inventoryCount;
+        copy.category = category;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.version = version;
+        copy.nameVersion = nameVersion;
+        return copy;
+    }
 }
@@ -0,0 +1,58 @@
+package com.ordermanager.model;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * One slice of a product's stock when the sharded stock engine is active.
+ * The product's available stock is {@code products.inventory_count} plus the sum of its shards.
+ */
+@Entity
+@Table(name = "product_stock_shards", uniqueConstraints = @UniqueConstraint(
+        name = "uk_product_stock_shards_product_shard", columnNames = {"product_id", "shard_index"}))
+public class ProductStockShard {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "shard_id", nullable = false, updatable = false)
+    private UUID shardId;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "shard_index", nullable = false, updatable = false)
+    private int shardIndex;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    protected ProductStockShard() {
+    }
+
+    public ProductStockShard(UUID productId, int shardIndex, int quantity) {
+        this.productId = productId;
+        this.shardIndex = shardIndex;
+        this.quantity = quantity;
+    }
+
+    public UUID getShardId() {
+        return shardId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
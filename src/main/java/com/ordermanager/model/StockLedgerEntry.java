@@ -0,0 +1,65 @@
+package com.ordermanager.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Stock movement recorded by the in-memory ledger inside the order transaction and folded into
+ * {@code products.inventory_count} later by the write-behind flush.
+ */
+@Entity
+@Table(name = "stock_ledger_entries", indexes = {
+        @Index(name = "idx_stock_ledger_entries_product_id", columnList = "product_id"),
+        @Index(name = "idx_stock_ledger_entries_flush_batch", columnList = "flush_batch")
+})
+public class StockLedgerEntry {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "entry_id", nullable = false, updatable = false)
+    private UUID entryId;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "delta", nullable = false, updatable = false)
+    private int delta;
+
+    @Column(name = "flush_batch")
+    private UUID flushBatch;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now(UTC);
+
+    protected StockLedgerEntry() {
+    }
+
+    public StockLedgerEntry(UUID productId, int delta) {
+        this.productId = productId;
+        this.delta = delta;
+    }
+
+    public UUID getEntryId() {
+        return entryId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public UUID getFlushBatch() {
+        return flushBatch;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.DailyOrderAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailyOrderAggregateRepository extends JpaRepository<DailyOrderAggregate, UUID> {
+
+    List<DailyOrderAggregate> findByOrderDateBetween(LocalDate from, LocalDate to);
+
+    List<DailyOrderAggregate> findByOrderDateIn(Collection<LocalDate> orderDates);
+}
@@ -0,0 +1,98 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.InventoryMovement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, UUID> {
+
+    interface StockLevel {
+        /**
+         * Stock of the latest snapshot, or {@code null} while the product has none.
+         */
+        Long getSnapshotStock();
+
+        int getInventoryCount();
+
+        /**
+         * Sum of the movements not yet folded into a snapshot.
+         */
+        long getPending();
+
+        default long getStock() {
+            return (getSnapshotStock() != null ? getSnapshotStock() : getInventoryCount()) + getPending();
+        }
+    }
+
+    interface Replay {
+        long getStock();
+
+        /**
+         * Opening stock plus every movement ever recorded for the product.
+         */
+        long getReplayed();
+
+        long getMovementCount();
+    }
+
+    interface ProductDelta {
+        UUID getProductId();
+
+        long getDelta();
+
+        long getMovements();
+    }
+
+    String LATEST_SNAPSHOT = "(SELECT MAX(l.snapshotId) FROM InventorySnapshot l WHERE l.productId = p.productId)";
+
+    String STOCK_LEVEL = "SELECT (SELECT s.stock FROM InventorySnapshot s WHERE s.snapshotId = " + LATEST_SNAPSHOT + ") AS snapshotStock, " +
+            "p.inventoryCount AS inventoryCount, " +
+            "COALESCE((SELECT SUM(m.delta) FROM InventoryMovement m WHERE m.productId = p.productId AND m.snapshotBatch IS NULL), 0) AS pending " +
+            "FROM Product p WHERE p.productId = :productId";
+
+    /**
+     * Stock of a product as the latest snapshot plus the movements recorded since, falling back to
+     * {@code inventory_count} before the first snapshot. Read in a single statement so a concurrent snapshot
+     * cannot be observed half-way.
+     */
+    @Query(STOCK_LEVEL)
+    Optional<StockLevel> findStockLevel(@Param("productId") UUID productId);
+
+    /**
+     * Same as {@link #findStockLevel} without flushing the persistence context first, so a product whose
+     * count has just been overwritten in memory is still read with the count the database holds.
+     */
+    @Query(STOCK_LEVEL)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<StockLevel> findStockLevelAsStored(@Param("productId") UUID productId);
+
+    @Query("SELECT COALESCE((SELECT s.stock FROM InventorySnapshot s WHERE s.snapshotId = " + LATEST_SNAPSHOT + "), p.inventoryCount) " +
+            "+ COALESCE((SELECT SUM(m.delta) FROM InventoryMovement m WHERE m.productId = p.productId AND m.snapshotBatch IS NULL), 0) AS stock, " +
+            "COALESCE((SELECT s.openingStock FROM InventorySnapshot s WHERE s.snapshotId = " + LATEST_SNAPSHOT + "), p.inventoryCount) " +
+            "+ COALESCE((SELECT SUM(m.delta) FROM InventoryMovement m WHERE m.productId = p.productId), 0) AS replayed, " +
+            "(SELECT COUNT(m) FROM InventoryMovement m WHERE m.productId = p.productId) AS movementCount " +
+            "FROM Product p WHERE p.productId = :productId")
+    Optional<Replay> replay(@Param("productId") UUID productId);
+
+    List<InventoryMovement> findByProductIdOrderByMovementIdDesc(UUID productId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE InventoryMovement m SET m.snapshotBatch = :batch WHERE m.snapshotBatch IS NULL")
+    int claimUnsnapshotted(@Param("batch") UUID batch);
+
+    @Query("SELECT m.productId AS productId, SUM(m.delta) AS delta, COUNT(m) AS movements FROM InventoryMovement m " +
+            "WHERE m.snapshotBatch = :batch GROUP BY m.productId ORDER BY m.productId")
+    List<ProductDelta> sumBySnapshotBatch(@Param("batch") UUID batch);
+}
@@ -0,0 +1,21 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, UUID> {
+
+    Optional<InventorySnapshot> findFirstByProductIdOrderBySnapshotIdDesc(UUID productId);
+
+    @Modifying
+    @Query("DELETE FROM InventorySnapshot s WHERE s.productId = :productId AND s.snapshotId < :snapshotId")
+    int deleteOlderThan(@Param("productId") UUID productId, @Param("snapshotId") UUID snapshotId);
+}
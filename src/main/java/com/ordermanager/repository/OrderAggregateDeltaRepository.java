@@ -0,0 +1,86 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.OrderAggregateDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderAggregateDeltaRepository extends JpaRepository<OrderAggregateDelta, UUID> {
+
+    interface BucketTotals {
+        LocalDate getOrderDate();
+
+        String getStatus();
+
+        String getPaymentMethod();
+
+        UUID getProductId();
+
+        long getOrderCount();
+
+        BigDecimal getRevenue();
+
+        long getUnitsSold();
+    }
+
+    interface OrderCounts {
+        LocalDate getOrderDate();
+
+        String getStatus();
+
+        String getPaymentMethod();
+
+        long getOrderCount();
+    }
+
+    @Modifying
+    @Query("UPDATE OrderAggregateDelta d SET d.foldBatch = :batch WHERE d.foldBatch IS NULL")
+    int claimUnfolded(@Param("batch") UUID batch);
+
+    @Query("SELECT d.orderDate AS orderDate, d.status AS status, d.paymentMethod AS paymentMethod, d.productId AS productId, " +
+            "SUM(d.orderCount) AS orderCount, SUM(d.revenue) AS revenue, SUM(d.unitsSold) AS unitsSold " +
+            "FROM OrderAggregateDelta d WHERE d.foldBatch = :batch " +
+            "GROUP BY d.orderDate, d.status, d.paymentMethod, d.productId")
+    List<BucketTotals> sumByFoldBatch(@Param("batch") UUID batch);
+
+    /**
+     * Changes not folded into the aggregates yet, whether or not a fold has claimed them: a fold deletes
+     * its batch in the same transaction that applies it.
+     */
+    @Query("SELECT d.orderDate AS orderDate, d.status AS status, d.paymentMethod AS paymentMethod, d.productId AS productId, " +
+            "SUM(d.orderCount) AS orderCount, SUM(d.revenue) AS revenue, SUM(d.unitsSold) AS unitsSold " +
+            "FROM OrderAggregateDelta d WHERE d.orderDate BETWEEN :from AND :to " +
+            "GROUP BY d.orderDate, d.status, d.paymentMethod, d.productId")
+    List<BucketTotals> sumPendingBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM OrderAggregateDelta d WHERE d.foldBatch = :batch")
+    int deleteByFoldBatch(@Param("batch") UUID batch);
+
+    /**
+     * Product buckets computed from scratch from the stored order lines, for backfilling the aggregates.
+     */
+    @Query("SELECT CAST(o.createdAt AS LocalDate) AS orderDate, COALESCE(o.status, '') AS status, " +
+            "COALESCE(o.paymentMethod, '') AS paymentMethod, oi.product.productId AS productId, " +
+            "0L AS orderCount, SUM(oi.subtotal) AS revenue, SUM(oi.quantity) AS unitsSold " +
+            "FROM Order o JOIN o.orderItems oi " +
+            "GROUP BY CAST(o.createdAt AS LocalDate), COALESCE(o.status, ''), COALESCE(o.paymentMethod, ''), oi.product.productId")
+    List<BucketTotals> sumFromOrderLines();
+
+    /**
+     * Order counts computed from scratch from the stored orders, lines or not, for backfilling the aggregates.
+     */
+    @Query("SELECT CAST(o.createdAt AS LocalDate) AS orderDate, COALESCE(o.status, '') AS status, " +
+            "COALESCE(o.paymentMethod, '') AS paymentMethod, COUNT(o) AS orderCount " +
+            "FROM Order o " +
+            "GROUP BY CAST(o.createdAt AS LocalDate), COALESCE(o.status, ''), COALESCE(o.paymentMethod, '')")
+    List<OrderCounts> countFromOrders();
+}
@@ -1,19 +1,90 @@
 package com.ordermanager.repository;
 
+import com.ordermanager.dto.OrderSummaryDTO;
 import com.ordermanager.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
+    interface OrderTimelineEntry {
+        UUID getOrderId();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    interface OrderProductPair {
+        UUID getOrderId();
+
+        UUID getProductId();
+    }
+
+    /**
+     * One line of an order joined with its order and product; an order without lines gives a single row
+     * whose line columns are {@code null}.
+     */
+    interface OrderDetailRow {
+        UUID getOrderId();
+
+        String getStatus();
+
+        BigDecimal getTotalAmount();
+
+        String getShippingAddress();
+
+        String getPaymentMethod();
+
+        String getNotes();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        UUID getOrderItemId();
+
+        UUID getProductId();
+
+        String getProductName();
+
+        Integer getQuantity();
+
+        BigDecimal getUnitPrice();
+
+        BigDecimal getSubtotal();
+
+        Long getVersion();
+
+        Integer getProductNameVersion();
+    }
+
+    /**
+     * The order's {@code @Version} and the sum of the rename counters of the products on its lines; together
+     * they change whenever the order detail would, and stock movements on those products leave them alone.
+     */
+    interface OrderDetailVersion {
+        Long getVersion();
+
+        Long getProductNameVersions();
+    }
+
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT DISTINCT o FROM Order o " +
             "JOIN o.orderItems oi " +
             "JOIN oi.product p " +
@@ -21,15 +92,77 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Order> findByProductNameOrDescription(String query);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
     Order findWithItemsByOrderId(UUID orderId);
 
+    /**
+     * Loads the order with its row locked, so that concurrent updates and deletes of the same order queue
+     * up instead of each moving stock against the same stale lines.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> findForUpdate(@Param("orderId") UUID orderId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT DISTINCT o FROM Order o JOIN o.orderItems oi JOIN oi.product p " +
             "WHERE (:name IS NULL OR p.name LIKE %:name%) AND " +
             "(:description IS NULL OR p.description LIKE %:description%)")
     List<Order> findByProductNameAndDescription(@Param("name") String name, @Param("description") String description);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
     List<Order> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    List<Order> findWithItemsByOrderIdIn(Collection<UUID> orderIds);
+
+    /**
+     * Newest orders first, as summaries. Order ids are time-ordered UUIDv7s, so the primary key alone gives
+     * creation order.
+     */
+    @Query("SELECT new com.ordermanager.dto.OrderSummaryDTO(o.orderId, o.status, o.totalAmount, o.paymentMethod, " +
+            "o.createdAt, SIZE(o.orderItems)) FROM Order o ORDER BY o.orderId DESC")
+    List<OrderSummaryDTO> findFirstPageSummaries(Limit limit);
+
+    @Query("SELECT new com.ordermanager.dto.OrderSummaryDTO(o.orderId, o.status, o.totalAmount, o.paymentMethod, " +
+            "o.createdAt, SIZE(o.orderItems)) FROM Order o WHERE o.orderId < :orderId ORDER BY o.orderId DESC")
+    List<OrderSummaryDTO> findPageSummariesBefore(@Param("orderId") UUID orderId, Limit limit);
+
+    @Query("SELECT o.orderId AS orderId, o.status AS status, o.totalAmount AS totalAmount, " +
+            "o.shippingAddress AS shippingAddress, o.paymentMethod AS paymentMethod, o.notes AS notes, " +
+            "o.createdAt AS createdAt, o.updatedAt AS updatedAt, oi.orderItemId AS orderItemId, " +
+            "p.productId AS productId, p.name AS productName, oi.quantity AS quantity, oi.unitPrice AS unitPrice, " +
+            "oi.subtotal AS subtotal, o.version AS version, p.nameVersion AS productNameVersion " +
+            "FROM Order o LEFT JOIN o.orderItems oi LEFT JOIN oi.product p " +
+            "WHERE o.orderId = :orderId ORDER BY oi.orderItemId")
+    List<OrderDetailRow> findDetailRows(@Param("orderId") UUID orderId);
+
+    @Query("SELECT o.version AS version, COALESCE(SUM(p.nameVersion), 0) AS productNameVersions " +
+            "FROM Order o LEFT JOIN o.orderItems oi LEFT JOIN oi.product p " +
+            "WHERE o.orderId = :orderId GROUP BY o.orderId, o.version")
+    Optional<OrderDetailVersion> findDetailVersion(@Param("orderId") UUID orderId);
+
+    @Query("SELECT o.orderId AS orderId, o.createdAt AS createdAt FROM Order o")
+    List<OrderTimelineEntry> findAllTimelineEntries();
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY o.createdAt, o.orderId")
+    List<UUID> findRangePageIds(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+                                Limit limit);
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate " +
+            "AND (o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.orderId > :orderId)) " +
+            "ORDER BY o.createdAt, o.orderId")
+    List<UUID> findRangePageIdsAfter(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+                                     @Param("createdAt") LocalDateTime createdAt, @Param("orderId") UUID orderId,
+                                     Limit limit);
+
+    @Query("SELECT o.createdAt FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
+    List<LocalDateTime> findCreatedAtInRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT DISTINCT oi.order.orderId AS orderId, oi.product.productId AS productId FROM OrderItem oi")
+    List<OrderProductPair> findAllOrderProductPairs();
+
 }
@@ -0,0 +1,15 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    List<OutboxEvent> findAllByOrderByEventIdAsc(Limit limit);
+}
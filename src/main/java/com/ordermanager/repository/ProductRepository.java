@@ -1,9 +1,16 @@
 package com.ordermanager.repository;
 
+import com.ordermanager.dto.ProductCardDTO;
 import com.ordermanager.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,4 +23,35 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     List<Product> findByCategory(String category);
 
     Optional<Product> findByName(String productName);
+
+    List<Product> findByNameIn(Collection<String> names);
+
+    @Query("SELECT new com.ordermanager.dto.ProductCardDTO(p.productId, p.name, p.description, p.price, " +
+            "p.category, p.version) FROM Product p ORDER BY p.name")
+    List<ProductCardDTO> findAllCards();
+
+    @Query("SELECT new com.ordermanager.dto.ProductCardDTO(p.productId, p.name, p.description, p.price, " +
+            "p.category, p.version) FROM Product p WHERE p.category = :category ORDER BY p.name")
+    List<ProductCardDTO> findCardsByCategory(@Param("category") String category);
+
+    @Query("SELECT new com.ordermanager.dto.ProductCardDTO(p.productId, p.name, p.description, p.price, " +
+            "p.category, p.version) FROM Product p WHERE p.productId = :productId")
+    Optional<ProductCardDTO> findCardById(@Param("productId") UUID productId);
+
+    @Query("SELECT p.version FROM Product p WHERE p.productId = :productId")
+    Optional<Integer> findVersionById(@Param("productId") UUID productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId = :productId")
+    Optional<Product> findForUpdate(@Param("productId") UUID productId);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.inventoryCount = p.inventoryCount - :quantity, p.version = p.version + 1 " +
+            "WHERE p.productId = :productId AND p.inventoryCount >= :quantity")
+    int decrementInventory(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.inventoryCount = p.inventoryCount + :quantity, p.version = p.version + 1 " +
+            "WHERE p.productId = :productId")
+    int incrementInventory(@Param("productId") UUID productId, @Param("quantity") int quantity);
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.ProductStockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, UUID> {
+
+    boolean existsByProductId(UUID productId);
+
+    List<ProductStockShard> findByProductIdOrderByShardIndex(UUID productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockShard s WHERE s.productId = :productId ORDER BY s.shardIndex")
+    List<ProductStockShard> findForUpdate(@Param("productId") UUID productId);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStockShard s WHERE s.productId = :productId")
+    long sumQuantity(@Param("productId") UUID productId);
+
+    @Query("SELECT DISTINCT s.productId FROM ProductStockShard s")
+    List<UUID> findShardedProductIds();
+
+    @Modifying
+    @Query("UPDATE ProductStockShard s SET s.quantity = s.quantity - :quantity " +
+            "WHERE s.productId = :productId AND s.shardIndex = :shardIndex AND s.quantity >= :quantity")
+    int decrementShard(@Param("productId") UUID productId, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductStockShard s SET s.quantity = s.quantity + :quantity " +
+            "WHERE s.productId = :productId AND s.shardIndex = :shardIndex")
+    int incrementShard(@Param("productId") UUID productId, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("DELETE FROM ProductStockShard s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") UUID productId);
+}
@@ -0,0 +1,68 @@
+package com.ordermanager.repository;
+
+import com.ordermanager.model.StockLedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockLedgerEntryRepository extends JpaRepository<StockLedgerEntry, UUID> {
+
+    interface ProductDelta {
+        UUID getProductId();
+
+        long getDelta();
+    }
+
+    interface StockLevel {
+        int getInventoryCount();
+
+        /**
+         * Sum of the entries not yet folded into {@code inventory_count}.
+         */
+        long getPending();
+
+        default long getStock() {
+            return getInventoryCount() + getPending();
+        }
+    }
+
+    /**
+     * Stock of a product as seen by the ledger: the flushed column plus every entry not yet folded into it,
+     * read in a single statement so a concurrent flush cannot be observed half-way.
+     */
+    @Query("SELECT p.inventoryCount + COALESCE((SELECT SUM(e.delta) FROM StockLedgerEntry e WHERE e.productId = p.productId), 0) " +
+            "FROM Product p WHERE p.productId = :productId")
+    Optional<Long> findCurrentStock(@Param("productId") UUID productId);
+
+    /**
+     * The flushed column and the pending entries of a product, read without flushing the persistence context
+     * first, so a product whose count has just been overwritten in memory is still read with the stored count.
+     */
+    @Query("SELECT p.inventoryCount AS inventoryCount, " +
+            "COALESCE((SELECT SUM(e.delta) FROM StockLedgerEntry e WHERE e.productId = p.productId), 0) AS pending " +
+            "FROM Product p WHERE p.productId = :productId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<StockLevel> findStockLevelAsStored(@Param("productId") UUID productId);
+
+    @Modifying
+    @Query("UPDATE StockLedgerEntry e SET e.flushBatch = :batch WHERE e.flushBatch IS NULL")
+    int claimUnflushed(@Param("batch") UUID batch);
+
+    @Query("SELECT e.productId AS productId, SUM(e.delta) AS delta FROM StockLedgerEntry e " +
+            "WHERE e.flushBatch = :batch GROUP BY e.productId ORDER BY e.productId")
+    List<ProductDelta> sumByFlushBatch(@Param("batch") UUID batch);
+
+    @Modifying
+    @Query("DELETE FROM StockLedgerEntry e WHERE e.flushBatch = :batch")
+    int deleteByFlushBatch(@Param("batch") UUID batch);
+}
@@ -1,166 +1,533 @@
 package com.ordermanager.service;
 
+import com.ordermanager.dto.OrderDetailDTO;
+import com.ordermanager.dto.OrderLineDTO;
+import com.ordermanager.dto.OrderPageDTO;
+import com.ordermanager.dto.OrderSummaryDTO;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
 import com.ordermanager.model.Order;
 import com.ordermanager.model.OrderItem;
 import com.ordermanager.model.Product;
 import com.ordermanager.repository.OrderRepository;
-import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.catalog.ProductCatalog;
+import com.ordermanager.service.pricing.OrderPricing;
+import com.ordermanager.service.search.OrderSearchIndex;
+import com.ordermanager.service.search.OrderTimelineIndex;
+import com.ordermanager.service.search.TimeBucket;
+import com.ordermanager.service.stock.StockEngine;
+import com.ordermanager.service.stock.StockMetrics;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.OptimisticLockException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.time.ZoneOffset.UTC;
 
 @Service
+@Observed(name = "order-manager.service")
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
+    private final OrderPricing pricing;
+    private final StockEngine stockEngine;
+    private final StockMetrics stockMetrics;
+    private final OrderSearchIndex searchIndex;
+    private final OrderTimelineIndex timelineIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, ProductCatalog productCatalog, OrderPricing pricing,
+                        StockEngine stockEngine, StockMetrics stockMetrics, OrderSearchIndex searchIndex,
+                        OrderTimelineIndex timelineIndex, ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
+        this.productCatalog = productCatalog;
+        this.pricing = pricing;
+        this.stockEngine = stockEngine;
+        this.stockMetrics = stockMetrics;
+        this.searchIndex = searchIndex;
+        this.timelineIndex = timelineIndex;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Order> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        for (Order order : orders) {
-            for (OrderItem item : order.getOrderItems()) {
-                if (item.getProduct() != null) {
-                    item.setProductName(item.getProduct().getName());
-                }
-            }
+    @Transactional(readOnly = true)
+    public OrderPageDTO<OrderSummaryDTO> getOrdersPage(String cursor, Integer size) {
+        int pageSize = pageSize(size);
+
+        // One extra row tells us whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrderSummaryDTO> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPageSummaries(limit);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageSummariesBefore(position.orderId(), limit);
         }
 
-        return Optional.of(orders)
-                .filter(list -> !list.isEmpty())
-                .orElseThrow(() -> new EntityNotFoundException("No orders found"));
+        if (orders.size() <= pageSize) {
+            return new OrderPageDTO<>(orders, null);
+        }
+        OrderSummaryDTO last = orders.get(pageSize - 1);
+        return new OrderPageDTO<>(orders.subList(0, pageSize),
+                new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode());
     }
 
-    public Order getOrderById(UUID orderId) {
-        return getOrderByOrderId(orderId);
+    /**
+     * The order with its lines and their product names, read in a single query.
+     */
+    @Transactional(readOnly = true)
+    public OrderDetailDTO getOrderById(UUID orderId) {
+        List<OrderRepository.OrderDetailRow> rows = orderRepository.findDetailRows(orderId);
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("Order not found for id: " + orderId);
+        }
+
+        List<OrderLineDTO> lines = new ArrayList<>(rows.size());
+        long productNameVersions = 0;
+        for (OrderRepository.OrderDetailRow row : rows) {
+            if (row.getOrderItemId() != null) {
+                lines.add(new OrderLineDTO(row.getOrderItemId(), row.getProductId(), row.getProductName(),
+                        row.getQuantity(), row.getUnitPrice(), row.getSubtotal()));
+                productNameVersions += row.getProductNameVersion();
+            }
+        }
+        OrderRepository.OrderDetailRow order = rows.get(0);
+        return new OrderDetailDTO(order.getOrderId(), order.getStatus(), order.getTotalAmount(),
+                order.getShippingAddress(), order.getPaymentMethod(), order.getNotes(), order.getCreatedAt(),
+                order.getUpdatedAt(), lines, order.getVersion(), orderETag(order.getVersion(), productNameVersions));
+    }
+
+    /**
+     * The entity tag {@link #getOrderById(UUID)} would return, read with a single aggregate over the version
+     * columns instead of loading the order. Product renames count too, since the detail shows product names.
+     */
+    @Transactional(readOnly = true)
+    public String getOrderETag(UUID orderId) {
+        OrderRepository.OrderDetailVersion version = orderRepository.findDetailVersion(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found for id: " + orderId));
+        return orderETag(version.getVersion(), version.getProductNameVersions());
     }
 
     @Transactional
     public Order createOrder(Order order) {
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = productRepository.findByName(item.getProductName())
-                    .orElseThrow(() -> new EntityNotFoundException("Product not found: " + item.getProductName()));
+        return placeOrder(order);
+    }
 
-            if (product.getInventoryCount() < item.getQuantity()) {
-                throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+    /**
+     * Creates the orders in one transaction, so they share a single commit and their inserts go out as one
+     * JDBC batch. An order that names an unknown product or lacks stock is rejected on its own: whatever it
+     * had reserved is handed back and the other orders still commit.
+     *
+     * @return one outcome per order, in submission order
+     */
+    @Transactional
+    public List<Outcome> createOrders(List<Order> orders) {
+        List<Outcome> outcomes = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                outcomes.add(new Outcome(placeOrder(order), null));
+            } catch (IllegalArgumentException | EntityNotFoundException e) {
+                outcomes.add(new Outcome(order, e));
             }
+        }
+        return outcomes;
+    }
 
-            product.setInventoryCount(product.getInventoryCount() - item.getQuantity());
-            saveProduct(product);
+    public record Outcome(Order order, RuntimeException rejection) {
 
-            item.setProduct(product);
-            item.setUnitPrice(product.getPrice());
-            item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-            totalAmount = totalAmount.add(item.getSubtotal());
+        public boolean isRejected() {
+            return rejection != null;
         }
-
-        order.setTotalAmount(totalAmount);
-        return orderRepository.save(order);
     }
 
+    /**
+     * Applies the header fields of {@code updatedOrder} and reconciles its lines with the stored ones.
+     * Lines are matched by product and only the net quantity difference moves stock, so an update that
+     * leaves the lines alone does no inventory work at all. Without {@code orderItems} the lines are kept.
+     */
     @Transactional
     public Order updateOrder(UUID orderId, Order updatedOrder) {
-        Order existingOrder = getOrderByOrderId(orderId);
-
-        for (OrderItem item : existingOrder.getOrderItems()) {
-            Product product = getProductByProductId(item.getProductId());
-            product.setInventoryCount(product.getInventoryCount() + item.getQuantity());
-            saveProduct(product);
-        }
+        Order existingOrder = getOrderForUpdate(orderId);
+        OrderSnapshot before = OrderSnapshot.of(existingOrder);
 
         existingOrder.setStatus(updatedOrder.getStatus());
         existingOrder.setShippingAddress(updatedOrder.getShippingAddress());
         existingOrder.setPaymentMethod(updatedOrder.getPaymentMethod());
         existingOrder.setNotes(updatedOrder.getNotes());
+        existingOrder.setUpdatedAt(LocalDateTime.now(UTC));
 
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (OrderItem item : updatedOrder.getOrderItems()) {
-            Product product = getProductByProductId(item.getProductId());
-
-            if (product.getInventoryCount() < item.getQuantity()) {
-                throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
-            }
-
-            product.setInventoryCount(product.getInventoryCount() - item.getQuantity());
-            saveProduct(product);
+        if (updatedOrder.getOrderItems() != null) {
+            reconcileOrderItems(existingOrder, requestedQuantities(updatedOrder.getOrderItems()));
+        }
 
-            item.setUnitPrice(product.getPrice());
-            item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-            totalAmount = totalAmount.add(item.getSubtotal());
+        long totalAmount = 0;
+        for (OrderItem item : existingOrder.getOrderItems()) {
+            totalAmount = pricing.add(totalAmount, subtotalOf(item));
         }
 
-        existingOrder.setTotalAmount(totalAmount);
-        return orderRepository.save(existingOrder);
+        existingOrder.setTotalAmount(pricing.toAmount(totalAmount));
+        Order savedOrder = orderRepository.save(existingOrder);
+        eventPublisher.publishEvent(OrderChangedEvent.updated(before, OrderSnapshot.of(savedOrder)));
+        return savedOrder;
     }
 
+    @Transactional
     public void deleteOrder(UUID orderId) {
-        Order order = getOrderByOrderId(orderId);
+        Order order = getOrderForUpdate(orderId);
 
+        Map<UUID, Integer> quantities = new TreeMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = getProductByProductId(item.getProductId());
-            product.setInventoryCount(product.getInventoryCount() + item.getQuantity());
-            saveProduct(product);
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<UUID, ProductCatalog.Resolved> products = productCatalog.findByIds(quantities.keySet());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            stockEngine.release(products.get(entry.getKey()).product(), entry.getValue());
         }
 
         orderRepository.deleteById(orderId);
+        eventPublisher.publishEvent(OrderChangedEvent.deleted(OrderSnapshot.of(order)));
     }
 
+    @Transactional(readOnly = true)
     public List<Order> searchOrdersByNameAndDescription(String name, String description) {
-
-        List<Order> orders = orderRepository.findByProductNameAndDescription(name, description);
+        List<Order> orders;
+        if (searchIndex.isReady()) {
+            Set<UUID> orderIds = searchIndex.search(name, description);
+            orders = orderIds.isEmpty() ? List.of() : orderRepository.findWithItemsByOrderIdIn(orderIds);
+        } else {
+            orders = orderRepository.findByProductNameAndDescription(name, description);
+        }
 
         return Optional.ofNullable(orders)
                 .filter(list -> !list.isEmpty())
                 .orElseThrow(() -> new EntityNotFoundException("No orders found for name: " + name + " and description " + description));
     }
 
+    @Transactional(readOnly = true)
     public List<Order> filterOrdersByDateRange(String startDate, String endDate) {
-        LocalDateTime startDateTime = LocalDateTime.parse(startDate);
-        LocalDateTime endDateTime = LocalDateTime.parse(endDate);
-
-        List<Order> orders = orderRepository.findByDateRange(startDateTime, endDateTime);
+        LocalDateTime startDateTime = parseDateTime(startDate);
+        LocalDateTime endDateTime = parseDateTime(endDate);
+
+        List<Order> orders;
+        if (timelineIndex.isReady()) {
+            orders = loadOrders(timelineIndex.stream(startDateTime, endDateTime).map(OrderTimelineIndex.Entry::orderId).toList());
+        } else {
+            orders = orderRepository.findByDateRange(startDateTime, endDateTime);
+        }
 
         return Optional.ofNullable(orders)
                 .filter(list -> !list.isEmpty())
                 .orElseThrow(() -> new EntityNotFoundException("No orders found for range: " + startDate + " to " + endDate));
     }
 
-    private void saveProduct(Product product) {
+    /**
+     * Orders created within the range, oldest first, one keyset page at a time.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDTO<Order> filterOrdersByDateRangePage(String startDate, String endDate, String cursor, Integer size) {
+        return rangePage(parseDateTime(startDate), parseDateTime(endDate), cursor, pageSize(size));
+    }
+
+    /**
+     * Hands every order created within the range to {@code consumer}, oldest first, loading them in pages
+     * so that memory use stays flat however large the range is.
+     */
+    public void streamOrdersByDateRange(String startDate, String endDate, Consumer<Order> consumer) {
+        LocalDateTime startDateTime = parseDateTime(startDate);
+        LocalDateTime endDateTime = parseDateTime(endDate);
+
+        String cursor = null;
+        do {
+            OrderPageDTO<Order> page = rangePage(startDateTime, endDateTime, cursor, MAX_PAGE_SIZE);
+            page.getOrders().forEach(consumer);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+    }
+
+    /**
+     * Number of orders created within the range per hour or day, listing only non-empty buckets.
+     */
+    @Transactional(readOnly = true)
+    public SortedMap<LocalDateTime, Long> countOrdersByDateRange(String startDate, String endDate, TimeBucket granularity) {
+        LocalDateTime startDateTime = parseDateTime(startDate);
+        LocalDateTime endDateTime = parseDateTime(endDate);
+
+        if (timelineIndex.isReady()) {
+            return timelineIndex.countByBucket(startDateTime, endDateTime, granularity);
+        }
+
+        SortedMap<LocalDateTime, Long> counts = new TreeMap<>();
+        for (LocalDateTime createdAt : orderRepository.findCreatedAtInRange(startDateTime, endDateTime)) {
+            counts.merge(granularity.startOf(createdAt), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private OrderPageDTO<Order> rangePage(LocalDateTime startDate, LocalDateTime endDate, String cursor, int pageSize) {
+        OrderCursor position = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        List<UUID> orderIds;
+        if (timelineIndex.isReady()) {
+            OrderTimelineIndex.Entry after = position == null ? null : new OrderTimelineIndex.Entry(position.createdAt(), position.orderId());
+            orderIds = timelineIndex.page(startDate, endDate, after, pageSize + 1).stream()
+                    .map(OrderTimelineIndex.Entry::orderId)
+                    .toList();
+        } else if (position == null) {
+            orderIds = orderRepository.findRangePageIds(startDate, endDate, Limit.of(pageSize + 1));
+        } else {
+            orderIds = orderRepository.findRangePageIdsAfter(startDate, endDate, position.createdAt(), position.orderId(),
+                    Limit.of(pageSize + 1));
+        }
+
+        return toPage(orderIds, pageSize);
+    }
+
+    /**
+     * Turns up to {@code pageSize + 1} ordered ids into a page, the extra id only signalling that more follow.
+     */
+    private OrderPageDTO<Order> toPage(List<UUID> orderIds, int pageSize) {
+        boolean hasNext = orderIds.size() > pageSize;
+        List<Order> orders = loadOrders(hasNext ? orderIds.subList(0, pageSize) : orderIds);
+
+        String nextCursor = null;
+        if (hasNext && !orders.isEmpty()) {
+            Order last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode();
+        }
+        return new OrderPageDTO<>(orders, nextCursor);
+    }
+
+    /**
+     * Loads orders with their items and products in one query, keeping the order of {@code orderIds}.
+     */
+    private List<Order> loadOrders(List<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<UUID, Order> ordersById = new HashMap<>();
+        for (Order order : orderRepository.findWithItemsByOrderIdIn(orderIds)) {
+            ordersById.put(order.getOrderId(), order);
+        }
+
+        List<Order> orders = new ArrayList<>(orderIds.size());
+        for (UUID orderId : orderIds) {
+            Order order = ordersById.get(orderId);
+            if (order == null) {
+                // deleted between the two queries
+                continue;
+            }
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getProduct() != null) {
+                    item.setProductName(item.getProduct().getName());
+                }
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static String orderETag(long orderVersion, long productNameVersions) {
+        return "\"" + orderVersion + "." + productNameVersions + "\"";
+    }
+
+    private static int pageSize(Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        return pageSize;
+    }
+
+    private static LocalDateTime parseDateTime(String dateTime) {
         try {
-            productRepository.save(product);
-        } catch (OptimisticLockException e) {
-            throw new IllegalStateException("Concurrent update detected for product: " + product.getName());
+            return LocalDateTime.parse(dateTime);
+        } catch (NullPointerException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + dateTime);
         }
     }
 
-    private Order getOrderByOrderId(UUID orderId) {
-        return orderRepository.findById(orderId)
-                .orElseThrow(() -> new EntityNotFoundException("Order not found for id: " + orderId));
+    private void reconcileOrderItems(Order order, Map<UUID, Integer> requested) {
+        Map<UUID, Integer> currentQuantities = new HashMap<>();
+        Map<UUID, OrderItem> lines = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            currentQuantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            lines.putIfAbsent(item.getProductId(), item);
+        }
+
+        // Only products whose quantity changes are loaded, and stock moves in product id order
+        Set<UUID> changedProductIds = new TreeSet<>();
+        Set<UUID> productIds = new HashSet<>(currentQuantities.keySet());
+        productIds.addAll(requested.keySet());
+        for (UUID productId : productIds) {
+            if (!currentQuantities.getOrDefault(productId, 0).equals(requested.getOrDefault(productId, 0))) {
+                changedProductIds.add(productId);
+            }
+        }
+        if (changedProductIds.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, ProductCatalog.Resolved> products = productCatalog.findByIds(changedProductIds);
+        for (UUID productId : changedProductIds) {
+            int currentQuantity = currentQuantities.getOrDefault(productId, 0);
+            int newQuantity = requested.getOrDefault(productId, 0);
+
+            ProductCatalog.Resolved product = products.get(productId);
+            if (newQuantity > currentQuantity) {
+                reserve(product.product(), newQuantity - currentQuantity);
+            } else {
+                stockEngine.release(product.product(), currentQuantity - newQuantity);
+            }
+
+            // a product spread over several lines is folded into the first one
+            OrderItem line = lines.get(productId);
+            order.getOrderItems().removeIf(item -> item != line && item.getProductId().equals(productId));
+
+            if (newQuantity == 0) {
+                order.getOrderItems().remove(line);
+                continue;
+            }
+
+            OrderItem target = line;
+            if (target == null) {
+                target = new OrderItem();
+                target.setOrder(order);
+                target.setProduct(product.product());
+                order.getOrderItems().add(target);
+            }
+            product = productCatalog.revalidate(product);
+            target.setQuantity(newQuantity);
+            target.setUnitPrice(product.price());
+            target.setSubtotal(pricing.toAmount(pricing.lineTotal(product.unitPrice(), newQuantity)));
+            target.setUpdatedAt(LocalDateTime.now(UTC));
+        }
+    }
+
+    private Map<UUID, Integer> requestedQuantities(List<OrderItem> items) {
+        List<OrderItem> itemsByName = new ArrayList<>();
+        for (OrderItem item : items) {
+            if (item.getQuantity() < 0) {
+                throw new IllegalArgumentException("Quantity must not be negative: " + item.getQuantity());
+            }
+            if (item.getProduct() == null) {
+                itemsByName.add(item);
+            }
+        }
+        Map<String, ProductCatalog.Resolved> productsByName = itemsByName.isEmpty() ? Map.of() : getProductsByName(itemsByName);
+
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (OrderItem item : items) {
+            UUID productId = item.getProduct() != null
+                    ? item.getProductId()
+                    : productsByName.get(item.getProductName()).productId();
+            quantities.merge(productId, item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private Order placeOrder(Order order) {
+        Map<String, ProductCatalog.Resolved> productsByName = getProductsByName(order.getOrderItems());
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(productsByName.get(item.getProductName()).productId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<UUID, Product> productsById = new HashMap<>();
+        productsByName.values().forEach(product -> productsById.put(product.productId(), product.product()));
+        reserveAll(quantities, productsById);
+
+        // priced after reserving, so engines that read the product row have a chance to catch a stale entry
+        long totalAmount = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            ProductCatalog.Resolved product = productCatalog.revalidate(productsByName.get(item.getProductName()));
+            item.setOrder(order);
+            item.setProduct(product.product());
+            long subtotal = pricing.lineTotal(product.unitPrice(), item.getQuantity());
+            item.setUnitPrice(product.price());
+            item.setSubtotal(pricing.toAmount(subtotal));
+            totalAmount = pricing.add(totalAmount, subtotal);
+        }
+
+        order.setTotalAmount(pricing.toAmount(totalAmount));
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.created(OrderSnapshot.of(savedOrder)));
+        return savedOrder;
     }
 
-    private Product getProductByProductId(UUID productId) {
-        return productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId));
+    /**
+     * Takes the stock for every product in ascending product id order, so that concurrent orders
+     * sharing products always lock their rows in the same sequence. If one product falls short, the
+     * stock already taken for the others is handed back before the failure propagates.
+     */
+    private void reserveAll(Map<UUID, Integer> quantities, Map<UUID, Product> products) {
+        Map<UUID, Integer> reserved = new TreeMap<>();
+        try {
+            for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+                reserve(products.get(entry.getKey()), entry.getValue());
+                reserved.put(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            for (Map.Entry<UUID, Integer> entry : reserved.entrySet()) {
+                stockEngine.release(products.get(entry.getKey()), entry.getValue());
+            }
+            throw e;
+        }
+    }
+
+    private void reserve(Product product, int quantity) {
+        try {
+            stockEngine.reserve(product, quantity);
+        } catch (IllegalArgumentException e) {
+            stockMetrics.recordRejection();
+            throw e;
+        }
+    }
+
+    private Map<String, ProductCatalog.Resolved> getProductsByName(List<OrderItem> items) {
+        Set<String> names = new HashSet<>();
+        for (OrderItem item : items) {
+            names.add(item.getProductName());
+        }
+        return productCatalog.findByNames(names);
+    }
+
+    private long subtotalOf(OrderItem item) {
+        if (item.getSubtotal() == null && item.getUnitPrice() != null) {
+            return pricing.lineTotal(pricing.toMinorUnits(item.getUnitPrice()), item.getQuantity());
+        }
+        return item.getSubtotal() == null ? 0 : pricing.toMinorUnits(item.getSubtotal());
+    }
+
+    private Order getOrderForUpdate(UUID orderId) {
+        return orderRepository.findForUpdate(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found for id: " + orderId));
     }
 
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.ordermanager.service;
 
+import com.ordermanager.dto.ProductCardDTO;
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.ProductChangedEvent;
 import com.ordermanager.model.Product;
 import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.stock.StockEngine;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,28 +19,66 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Observed(name = "order-manager.service")
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final StockEngine stockEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, StockEngine stockEngine,
+                          ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.stockEngine = stockEngine;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    /**
+     * Cards of all products, or of one category, ordered by name.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductCardDTO> getProductCards(String category) {
+        return category == null ? productRepository.findAllCards() : productRepository.findCardsByCategory(category);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductCardDTO getProductCard(UUID productId) {
+        return productRepository.findCardById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+    }
+
+    /**
+     * The entity tag {@link #getProductCard(UUID)} would return, read from the version column alone.
+     */
+    @Transactional(readOnly = true)
+    public String getProductETag(UUID productId) {
+        return productRepository.findVersionById(productId)
+                .map(ProductCardDTO::eTagOf)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(UUID productId) {
-        return productRepository.findById(productId);
+        // A detached copy carries the engine's view of the stock, so it never gets flushed back
+        return productRepository.findById(productId)
+                .map(product -> product.withInventoryCount(stockEngine.availableStock(product)));
     }
 
+    @Transactional
     public Product createProduct(Product product) {
         product.setCreatedAt(LocalDateTime.now());
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ChangeType.CREATED, savedProduct));
+        return savedProduct;
     }
 
+    @Transactional
     public Product updateProduct(UUID productId, Product updatedProduct) {
         Product existingProduct = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
@@ -43,14 +88,20 @@ public class ProductService {
         existingProduct.setPrice(updatedProduct.getPrice());
         existingProduct.setInventoryCount(updatedProduct.getInventoryCount());
         existingProduct.setCategory(updatedProduct.getCategory());
+        stockEngine.onStockOverwritten(existingProduct);
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ChangeType.UPDATED, savedProduct));
+        return savedProduct;
     }
 
+    @Transactional
     public void deleteProduct(UUID productId) {
         if (!productRepository.existsById(productId)) {
             throw new EntityNotFoundException("Product not found");
         }
         productRepository.deleteById(productId);
+        stockEngine.onProductDeleted(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
     }
 }
@@ -0,0 +1,309 @@
+package com.ordermanager.service.analytics;
+
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.pricing.OrderPricing;
+import com.ordermanager.service.stock.StockEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Best sellers of the last window (an hour by default) by units and by revenue, tracked in memory with a
+ * footprint that does not depend on the number of products.
+ * <p>
+ * The window is a ring of time slots. Each slot holds a {@link CountMinSketch} for units and one for revenue,
+ * plus a bounded set of candidate heavy hitters. Writers only do atomic adds, and a slot that falls out of
+ * the window is replaced by a fresh one. Changes are booked in the slot of the order's creation time, so
+ * an edit or delete adjusts the sale where it was counted. Once that slot has left the window, the change
+ * is dropped.
+ */
+@Component
+public class BestSellerTracker {
+
+    public enum Ranking {
+        UNITS,
+        REVENUE
+    }
+
+    public record TopProduct(UUID productId, String name, long units, BigDecimal revenue) {
+    }
+
+    /**
+     * Top products with the exact units and revenue of all products over the same window.
+     */
+    public record TopSellers(long totalUnits, BigDecimal totalRevenue, List<TopProduct> products) {
+    }
+
+    /**
+     * A best seller with the stock it has left and how long that lasts at its current rate of sale.
+     */
+    public record StockOutRisk(UUID productId, String name, long unitsInWindow, int availableStock,
+                               double hoursToStockOut) {
+    }
+
+    private final class Slot {
+        private final long epoch;
+        private final CountMinSketch units = new CountMinSketch(sketchDepth, sketchWidth);
+        private final CountMinSketch revenueMinorUnits = new CountMinSketch(sketchDepth, sketchWidth);
+        private final Set<UUID> candidates = ConcurrentHashMap.newKeySet();
+        private final ReentrantLock trimLock = new ReentrantLock();
+        private final LongAdder totalUnits = new LongAdder();
+        private final LongAdder totalRevenueMinorUnits = new LongAdder();
+
+        private Slot(long epoch) {
+            this.epoch = epoch;
+        }
+
+        private void add(UUID productId, long unitDelta, long revenueDelta) {
+            units.add(productId, unitDelta);
+            revenueMinorUnits.add(productId, revenueDelta);
+            totalUnits.add(unitDelta);
+            totalRevenueMinorUnits.add(revenueDelta);
+            if (unitDelta > 0 && candidates.add(productId) && candidates.size() > 2 * capacity) {
+                trim();
+            }
+        }
+
+        /**
+         * Shrinks the candidates back to the top {@code capacity} by either measure. Whoever finds the lock
+         * taken simply moves on: the set only has to stay bounded, not exact.
+         */
+        private void trim() {
+            if (!trimLock.tryLock()) {
+                return;
+            }
+            try {
+                Set<UUID> keep = new HashSet<>();
+                keep.addAll(topCandidates(units));
+                keep.addAll(topCandidates(revenueMinorUnits));
+                candidates.retainAll(keep);
+            } finally {
+                trimLock.unlock();
+            }
+        }
+
+        private List<UUID> topCandidates(CountMinSketch sketch) {
+            return candidates.stream()
+                    .sorted(Comparator.comparingLong(sketch::estimate).reversed())
+                    .limit(capacity)
+                    .toList();
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final StockEngine stockEngine;
+    private final OrderPricing pricing;
+    private final Clock clock;
+    private final long slotMillis;
+    private final int capacity;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final AtomicReferenceArray<Slot> slots;
+
+    @Autowired
+    public BestSellerTracker(ProductRepository productRepository, StockEngine stockEngine, OrderPricing pricing,
+                             @Value("${order-manager.best-sellers.window-minutes:60}") int windowMinutes,
+                             @Value("${order-manager.best-sellers.slots:12}") int slotCount,
+                             @Value("${order-manager.best-sellers.capacity:100}") int capacity,
+                             @Value("${order-manager.best-sellers.sketch-depth:4}") int sketchDepth,
+                             @Value("${order-manager.best-sellers.sketch-width:1024}") int sketchWidth) {
+        this(productRepository, stockEngine, pricing, Clock.systemUTC(), windowMinutes, slotCount, capacity, sketchDepth, sketchWidth);
+    }
+
+    BestSellerTracker(ProductRepository productRepository, StockEngine stockEngine, OrderPricing pricing, Clock clock, int windowMinutes,
+                      int slotCount, int capacity, int sketchDepth, int sketchWidth) {
+        if (windowMinutes < 1 || slotCount < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Best seller window, slots and capacity must be positive");
+        }
+        this.productRepository = productRepository;
+        this.stockEngine = stockEngine;
+        this.pricing = pricing;
+        this.clock = clock;
+        this.slotMillis = Math.max(1, Duration.ofMinutes(windowMinutes).toMillis() / slotCount);
+        this.capacity = capacity;
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        // fail on a bad sketch shape at startup rather than on the first order
+        new CountMinSketch(sketchDepth, sketchWidth);
+    }
+
+    /**
+     * Books the net change in units and revenue per product once the order change has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderSnapshot order = event.after() != null ? event.after() : event.before();
+        if (order.createdAt() == null) {
+            return;
+        }
+        Slot slot = liveSlot(order.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli() / slotMillis);
+        if (slot == null) {
+            return;
+        }
+
+        Map<UUID, long[]> changes = new HashMap<>();
+        accumulate(changes, event.before(), -1);
+        accumulate(changes, event.after(), 1);
+        changes.forEach((productId, change) -> {
+            if (change[0] != 0 || change[1] != 0) {
+                slot.add(productId, change[0], change[1]);
+            }
+        });
+    }
+
+    /**
+     * The {@code limit} products with the most units or revenue in the window. Figures are Count-Min
+     * estimates: they may be slightly high when products share counters, never low.
+     */
+    public TopSellers topSellers(Ranking ranking, int limit) {
+        List<Map.Entry<UUID, long[]>> ranked = rank(ranking, checkLimit(limit));
+        Map<UUID, String> names = namesOf(ranked);
+        List<TopProduct> products = ranked.stream()
+                .map(entry -> new TopProduct(entry.getKey(), names.get(entry.getKey()), entry.getValue()[0],
+                        pricing.toAmount(entry.getValue()[1])))
+                .toList();
+
+        long units = 0;
+        long revenue = 0;
+        for (Slot slot : liveSlots()) {
+            units += slot.totalUnits.sum();
+            revenue += slot.totalRevenueMinorUnits.sum();
+        }
+        return new TopSellers(units, pricing.toAmount(revenue), products);
+    }
+
+    /**
+     * The best sellers by units that will run out soonest at their rate of sale over the window.
+     */
+    public List<StockOutRisk> stockOutRisks(int limit) {
+        List<Map.Entry<UUID, long[]>> ranked = rank(Ranking.UNITS, capacity);
+        Map<UUID, Long> unitsById = new HashMap<>();
+        ranked.forEach(entry -> unitsById.put(entry.getKey(), entry.getValue()[0]));
+
+        double windowHours = (double) slotMillis * slots.length() / Duration.ofHours(1).toMillis();
+        List<StockOutRisk> risks = new ArrayList<>();
+        for (Product product : productRepository.findAllById(unitsById.keySet())) {
+            long units = unitsById.get(product.getProductId());
+            int available = stockEngine.availableStock(product);
+            risks.add(new StockOutRisk(product.getProductId(), product.getName(), units, available,
+                    Math.max(0, available) / (units / windowHours)));
+        }
+        risks.sort(Comparator.comparingDouble(StockOutRisk::hoursToStockOut));
+        return risks.subList(0, Math.min(checkLimit(limit), risks.size()));
+    }
+
+    private List<Map.Entry<UUID, long[]>> rank(Ranking ranking, int limit) {
+        List<Slot> live = liveSlots();
+        Set<UUID> candidates = new HashSet<>();
+        live.forEach(slot -> candidates.addAll(slot.candidates));
+
+        Map<UUID, long[]> estimates = new HashMap<>();
+        for (UUID productId : candidates) {
+            long units = 0;
+            long revenue = 0;
+            for (Slot slot : live) {
+                units += slot.units.estimate(productId);
+                revenue += slot.revenueMinorUnits.estimate(productId);
+            }
+            if (units > 0) {
+                estimates.put(productId, new long[]{units, revenue});
+            }
+        }
+
+        int index = ranking == Ranking.UNITS ? 0 : 1;
+        return estimates.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<UUID, long[]> entry) -> entry.getValue()[index]).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private Map<UUID, String> namesOf(List<Map.Entry<UUID, long[]>> ranked) {
+        Map<UUID, String> names = new HashMap<>();
+        if (!ranked.isEmpty()) {
+            for (Product product : productRepository.findAllById(ranked.stream().map(Map.Entry::getKey).toList())) {
+                names.put(product.getProductId(), product.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * The slot for {@code epoch}, starting it if its place in the ring still holds an older one, or
+     * {@code null} if the epoch is outside the window.
+     */
+    private Slot liveSlot(long epoch) {
+        long current = currentEpoch();
+        if (epoch > current || epoch <= current - slots.length()) {
+            return null;
+        }
+
+        int index = (int) Math.floorMod(epoch, (long) slots.length());
+        Slot slot = slots.get(index);
+        while (slot == null || slot.epoch < epoch) {
+            Slot fresh = new Slot(epoch);
+            if (slots.compareAndSet(index, slot, fresh)) {
+                return fresh;
+            }
+            slot = slots.get(index);
+        }
+        return slot.epoch == epoch ? slot : null;
+    }
+
+    private List<Slot> liveSlots() {
+        long oldest = currentEpoch() - slots.length();
+        List<Slot> live = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.epoch > oldest) {
+                live.add(slot);
+            }
+        }
+        return live;
+    }
+
+    private long currentEpoch() {
+        return clock.millis() / slotMillis;
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > capacity) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + capacity);
+        }
+        return limit;
+    }
+
+    private void accumulate(Map<UUID, long[]> changes, OrderSnapshot order, int sign) {
+        if (order == null) {
+            return;
+        }
+        for (OrderSnapshot.Line line : order.lines()) {
+            long[] change = changes.computeIfAbsent(line.productId(), id -> new long[2]);
+            change[0] += (long) sign * line.quantity();
+            if (line.subtotal() != null) {
+                change[1] += sign * pricing.toMinorUnits(line.subtotal());
+            }
+        }
+    }
+}
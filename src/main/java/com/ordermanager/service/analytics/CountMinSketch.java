@@ -0,0 +1,56 @@
+package com.ordermanager.service.analytics;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch over product ids: fixed memory whatever the number of products, lock-free updates,
+ * and estimates that never undercount while all updates are positive.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch depth must be positive and width a power of two");
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    void add(UUID key, long amount) {
+        long h1 = mix(key.getMostSignificantBits());
+        long h2 = mix(key.getLeastSignificantBits()) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(index(row, h1 + row * h2), amount);
+        }
+    }
+
+    long estimate(UUID key) {
+        long h1 = mix(key.getMostSignificantBits());
+        long h2 = mix(key.getLeastSignificantBits()) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, h1 + row * h2)));
+        }
+        return min;
+    }
+
+    private int index(int row, long hash) {
+        return row * (mask + 1) + ((int) (hash >>> 32 ^ hash) & mask);
+    }
+
+    private static long mix(long value) {
+        // murmur3 finalizer
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
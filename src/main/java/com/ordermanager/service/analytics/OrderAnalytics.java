@@ -0,0 +1,254 @@
+package com.ordermanager.service.analytics;
+
+import com.ordermanager.dto.DailyOrderAggregateDTO;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.model.DailyOrderAggregate;
+import com.ordermanager.model.OrderAggregateDelta;
+import com.ordermanager.repository.DailyOrderAggregateRepository;
+import com.ordermanager.repository.OrderAggregateDeltaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Daily order count, revenue and units sold per order status and payment method, kept up to date as orders
+ * change instead of being summed from the orders on every read. Revenue and units are kept per product; the
+ * order count goes to a bucket without a product, so every order counts once, even one without lines.
+ * <p>
+ * Each order change appends {@link OrderAggregateDelta} rows inside its own transaction. Appends never
+ * conflict, so concurrent checkouts do not queue behind a shared aggregate row. A scheduled fold merges
+ * the deltas into {@link DailyOrderAggregate} buckets, and reads add whatever is still pending, so
+ * answers are exact. Like the stock ledger, this assumes one application instance runs the fold.
+ */
+@Component
+public class OrderAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAnalytics.class);
+
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparing(Bucket::orderDate)
+            .thenComparing(Bucket::status)
+            .thenComparing(Bucket::paymentMethod)
+            .thenComparing(Bucket::productId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public record Bucket(LocalDate orderDate, String status, String paymentMethod, UUID productId) {
+    }
+
+    private static final class Totals {
+        private long orderCount;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long unitsSold;
+
+        private void add(long orderCount, BigDecimal revenue, long unitsSold) {
+            this.orderCount += orderCount;
+            this.revenue = this.revenue.add(revenue);
+            this.unitsSold += unitsSold;
+        }
+
+        private boolean isZero() {
+            return orderCount == 0 && unitsSold == 0 && revenue.signum() == 0;
+        }
+    }
+
+    private final OrderAggregateDeltaRepository deltaRepository;
+    private final DailyOrderAggregateRepository aggregateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate rebuildTemplate;
+
+    public OrderAnalytics(OrderAggregateDeltaRepository deltaRepository,
+                          DailyOrderAggregateRepository aggregateRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.deltaRepository = deltaRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // folded totals and pending deltas must be read from the same snapshot, or a fold committing
+        // in between is counted twice or not at all
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.readTemplate.setReadOnly(true);
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Runs synchronously inside the transaction that changed the order, so the deltas commit or roll back
+     * with it. An update that leaves an order's buckets alone writes nothing.
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        Map<Bucket, Totals> changes = new HashMap<>();
+        accumulate(changes, event.before(), -1);
+        accumulate(changes, event.after(), 1);
+
+        List<OrderAggregateDelta> deltas = new ArrayList<>();
+        changes.forEach((bucket, totals) -> {
+            if (!totals.isZero()) {
+                deltas.add(new OrderAggregateDelta(bucket.orderDate(), bucket.status(), bucket.paymentMethod(),
+                        bucket.productId(), totals.orderCount, totals.revenue, totals.unitsSold));
+            }
+        });
+        if (!deltas.isEmpty()) {
+            deltaRepository.saveAll(deltas);
+        }
+    }
+
+    /**
+     * Buckets for the days from {@code from} to {@code to} inclusive, optionally narrowed to one status,
+     * payment method or product. Each bucket is one stored row plus its pending deltas. Narrowing to a product
+     * leaves out the order count buckets.
+     */
+    public List<DailyOrderAggregateDTO> daily(LocalDate from, LocalDate to, String status, String paymentMethod,
+                                              UUID productId) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range: " + from + " to " + to);
+        }
+
+        Map<Bucket, Totals> buckets = readTemplate.execute(tx -> {
+            Map<Bucket, Totals> totals = new HashMap<>();
+            for (DailyOrderAggregate aggregate : aggregateRepository.findByOrderDateBetween(from, to)) {
+                totals.computeIfAbsent(bucketOf(aggregate), bucket -> new Totals())
+                        .add(aggregate.getOrderCount(), aggregate.getRevenue(), aggregate.getUnitsSold());
+            }
+            for (OrderAggregateDeltaRepository.BucketTotals pending : deltaRepository.sumPendingBetween(from, to)) {
+                totals.computeIfAbsent(bucketOf(pending), bucket -> new Totals())
+                        .add(pending.getOrderCount(), pending.getRevenue(), pending.getUnitsSold());
+            }
+            return totals;
+        });
+
+        return buckets.entrySet().stream()
+                .filter(entry -> !entry.getValue().isZero())
+                .filter(entry -> status == null || status.equals(entry.getKey().status()))
+                .filter(entry -> paymentMethod == null || paymentMethod.equals(entry.getKey().paymentMethod()))
+                .filter(entry -> productId == null || productId.equals(entry.getKey().productId()))
+                .sorted(Map.Entry.comparingByKey(BUCKET_ORDER))
+                .map(entry -> toDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Merges every pending delta into its bucket. Deltas are claimed with a batch marker first, so changes
+     * committed while the fold runs are left for the next round.
+     */
+    @Scheduled(fixedDelayString = "${order-manager.analytics.fold-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void fold() {
+        Integer folded = transactionTemplate.execute(tx -> {
+            UUID batch = UUID.randomUUID();
+            if (deltaRepository.claimUnfolded(batch) == 0) {
+                return 0;
+            }
+
+            List<OrderAggregateDeltaRepository.BucketTotals> sums = deltaRepository.sumByFoldBatch(batch);
+            Set<LocalDate> days = new HashSet<>();
+            sums.forEach(sum -> days.add(sum.getOrderDate()));
+            Map<Bucket, DailyOrderAggregate> aggregates = new HashMap<>();
+            for (DailyOrderAggregate aggregate : aggregateRepository.findByOrderDateIn(days)) {
+                aggregates.put(bucketOf(aggregate), aggregate);
+            }
+
+            for (OrderAggregateDeltaRepository.BucketTotals sum : sums) {
+                Bucket bucket = bucketOf(sum);
+                aggregates.computeIfAbsent(bucket, b -> new DailyOrderAggregate(
+                                b.orderDate(), b.status(), b.paymentMethod(), b.productId()))
+                        .add(sum.getOrderCount(), sum.getRevenue(), sum.getUnitsSold());
+            }
+            aggregateRepository.saveAll(aggregates.values());
+            deltaRepository.deleteByFoldBatch(batch);
+            return sums.size();
+        });
+
+        if (folded != null && folded > 0) {
+            logger.debug("Folded order aggregate deltas into {} buckets", folded);
+        }
+    }
+
+    /**
+     * Recomputes every bucket from the stored orders, for backfilling history or repairing the aggregates.
+     * Runs on one snapshot: orders committed after it starts keep their deltas and are folded as usual.
+     *
+     * @return the number of buckets written
+     */
+    public synchronized int rebuild() {
+        Integer rebuilt = rebuildTemplate.execute(tx -> {
+            List<OrderAggregateDeltaRepository.OrderCounts> counts = deltaRepository.countFromOrders();
+            List<OrderAggregateDeltaRepository.BucketTotals> sums = deltaRepository.sumFromOrderLines();
+            deltaRepository.deleteAllInBatch();
+            aggregateRepository.deleteAllInBatch();
+
+            List<DailyOrderAggregate> aggregates = new ArrayList<>(counts.size() + sums.size());
+            for (OrderAggregateDeltaRepository.OrderCounts count : counts) {
+                DailyOrderAggregate aggregate = new DailyOrderAggregate(
+                        count.getOrderDate(), count.getStatus(), count.getPaymentMethod(), null);
+                aggregate.add(count.getOrderCount(), BigDecimal.ZERO, 0);
+                aggregates.add(aggregate);
+            }
+            for (OrderAggregateDeltaRepository.BucketTotals sum : sums) {
+                DailyOrderAggregate aggregate = new DailyOrderAggregate(
+                        sum.getOrderDate(), sum.getStatus(), sum.getPaymentMethod(), sum.getProductId());
+                aggregate.add(0, sum.getRevenue(), sum.getUnitsSold());
+                aggregates.add(aggregate);
+            }
+            aggregateRepository.saveAll(aggregates);
+            return aggregates.size();
+        });
+
+        logger.info("Rebuilt order aggregates: {} buckets", rebuilt);
+        return rebuilt == null ? 0 : rebuilt;
+    }
+
+    private static void accumulate(Map<Bucket, Totals> changes, OrderSnapshot order, int sign) {
+        if (order == null || order.createdAt() == null) {
+            return;
+        }
+
+        LocalDate orderDate = order.createdAt().toLocalDate();
+        String status = Objects.requireNonNullElse(order.status(), "");
+        String paymentMethod = Objects.requireNonNullElse(order.paymentMethod(), "");
+        Map<UUID, Totals> byProduct = new HashMap<>();
+        for (OrderSnapshot.Line line : order.lines()) {
+            BigDecimal subtotal = line.subtotal() == null ? BigDecimal.ZERO : line.subtotal();
+            byProduct.computeIfAbsent(line.productId(), id -> new Totals()).add(0, subtotal, line.quantity());
+        }
+
+        changes.computeIfAbsent(new Bucket(orderDate, status, paymentMethod, null), bucket -> new Totals())
+                .add(sign, BigDecimal.ZERO, 0);
+        BigDecimal signum = BigDecimal.valueOf(sign);
+        byProduct.forEach((productId, totals) -> changes
+                .computeIfAbsent(new Bucket(orderDate, status, paymentMethod, productId), bucket -> new Totals())
+                .add(0, totals.revenue.multiply(signum), (long) sign * totals.unitsSold));
+    }
+
+    private static Bucket bucketOf(DailyOrderAggregate aggregate) {
+        return new Bucket(aggregate.getOrderDate(), aggregate.getStatus(), aggregate.getPaymentMethod(),
+                aggregate.getProductId());
+    }
+
+    private static Bucket bucketOf(OrderAggregateDeltaRepository.BucketTotals totals) {
+        return new Bucket(totals.getOrderDate(), totals.getStatus(), totals.getPaymentMethod(), totals.getProductId());
+    }
+
+    private static DailyOrderAggregateDTO toDTO(Bucket bucket, Totals totals) {
+        return new DailyOrderAggregateDTO(bucket.orderDate(), bucket.status(), bucket.paymentMethod(),
+                bucket.productId(), totals.orderCount, totals.revenue, totals.unitsSold);
+    }
+}
@@ -0,0 +1,229 @@
+package com.ordermanager.service.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.ProductChangedEvent;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.pricing.OrderPricing;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded near-cache of the product metadata order writes need: the id behind a name, and the name, price
+ * and category behind an id.
+ * <p>
+ * Only misses go to the database. A hit hands out a lazy reference instead of the entity, so engines that
+ * work on the product id alone never read the product row. Stock is deliberately not part of an entry, it
+ * always comes from the {@code StockEngine}. Entries are dropped once a product update or delete commits,
+ * and a load that raced with such a change is returned to its caller but not cached. Changes that never raise
+ * such an event are caught by {@link #revalidate} wherever the row gets read anyway.
+ */
+@Component
+public class ProductCatalog {
+
+    /**
+     * Cached metadata of a product, stamped with the {@code @Version} it was read at. {@code unitPrice} is
+     * the price in minor units of the {@link OrderPricing} currency.
+     */
+    public record Entry(UUID productId, String name, BigDecimal price, long unitPrice, String category, int version) {
+
+        static Entry of(Product product, OrderPricing pricing) {
+            long unitPrice = product.getPrice() == null ? 0 : pricing.priceToMinorUnits(product.getPrice());
+            return new Entry(product.getProductId(), product.getName(), product.getPrice(), unitPrice,
+                    product.getCategory(), product.getVersion());
+        }
+    }
+
+    /**
+     * A product resolved through the catalog: the entity to attach to order lines and hand to the stock
+     * engine, and the metadata to price the lines with.
+     */
+    public record Resolved(Product product, Entry entry) {
+
+        public UUID productId() {
+            return entry.productId();
+        }
+
+        public BigDecimal price() {
+            return entry.price();
+        }
+
+        public long unitPrice() {
+            return entry.unitPrice();
+        }
+    }
+
+    public record Stats(long size, long hits, long misses, double hitRate, long evictions) {
+
+        static Stats of(Cache<?, ?> cache) {
+            CacheStats stats = cache.stats();
+            return new Stats(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                    stats.evictionCount());
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderPricing pricing;
+    private final Cache<UUID, Entry> entriesById;
+    private final Cache<String, UUID> idsByName;
+
+    // bumped on every committed product change; loads that started before a bump are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCatalog(ProductRepository productRepository, OrderPricing pricing,
+                          @Value("${order-manager.catalog.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${order-manager.catalog.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        this.productRepository = productRepository;
+        this.pricing = pricing;
+        this.entriesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Resolves every name, loading all misses in a single query.
+     *
+     * @throws EntityNotFoundException if a name matches no product
+     */
+    public Map<String, Resolved> findByNames(Collection<String> names) {
+        Map<String, Resolved> products = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            UUID productId = idsByName.getIfPresent(name);
+            Entry entry = productId == null ? null : entriesById.getIfPresent(productId);
+            if (entry != null && entry.name().equals(name)) {
+                products.put(name, new Resolved(productRepository.getReferenceById(productId), entry));
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadedAt = generation.get();
+            for (Product product : productRepository.findByNameIn(missing)) {
+                if (!products.containsKey(product.getName())) {
+                    products.put(product.getName(), new Resolved(product, remember(product, loadedAt)));
+                }
+            }
+            for (String name : missing) {
+                if (!products.containsKey(name)) {
+                    throw new EntityNotFoundException("Product not found: " + name);
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Resolves every id, loading all misses in a single query.
+     *
+     * @throws EntityNotFoundException if an id matches no product
+     */
+    public Map<UUID, Resolved> findByIds(Collection<UUID> productIds) {
+        Map<UUID, Resolved> products = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID productId : productIds) {
+            Entry entry = entriesById.getIfPresent(productId);
+            if (entry != null) {
+                products.put(productId, new Resolved(productRepository.getReferenceById(productId), entry));
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadedAt = generation.get();
+            for (Product product : productRepository.findAllById(missing)) {
+                products.put(product.getProductId(), new Resolved(product, remember(product, loadedAt)));
+            }
+            for (UUID productId : missing) {
+                if (!products.containsKey(productId)) {
+                    throw new EntityNotFoundException("Product not found for id: " + productId);
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Checks a resolved product against its row once the persistence context has read it, as the optimistic
+     * stock engine does. An entry whose stamped version no longer matches was changed without an event
+     * reaching this instance, by another instance or by a write that bypassed {@code ProductService}, and is
+     * replaced by one built from the row. While the row stays unread, only events and expiry keep entries fresh.
+     */
+    public Resolved revalidate(Resolved resolved) {
+        Product product = resolved.product();
+        Entry stamped = resolved.entry();
+        if (!Hibernate.isInitialized(product) || product.getVersion() == stamped.version()) {
+            return resolved;
+        }
+
+        entriesById.asMap().remove(stamped.productId(), stamped);
+        if (stamped.name() != null) {
+            idsByName.asMap().remove(stamped.name(), stamped.productId());
+        }
+        return new Resolved(product, remember(product, generation.get()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ChangeType.CREATED) {
+            // misses are never cached, so a new product has nothing to displace
+            return;
+        }
+
+        generation.incrementAndGet();
+        Entry removed = entriesById.asMap().remove(event.productId());
+        if (removed != null && removed.name() != null) {
+            idsByName.asMap().remove(removed.name(), event.productId());
+        }
+    }
+
+    public Stats byIdStats() {
+        return Stats.of(entriesById);
+    }
+
+    public Stats byNameStats() {
+        return Stats.of(idsByName);
+    }
+
+    private Entry remember(Product product, long loadedAt) {
+        Entry entry = Entry.of(product, pricing);
+        if (generation.get() == loadedAt) {
+            // never let an older read of the row replace a newer one
+            entriesById.asMap().merge(entry.productId(), entry,
+                    (cached, loaded) -> loaded.version() >= cached.version() ? loaded : cached);
+            if (entry.name() != null) {
+                idsByName.put(entry.name(), entry.productId());
+            }
+            if (generation.get() != loadedAt) {
+                // a change committed while the entry was going in
+                entriesById.asMap().remove(entry.productId(), entry);
+            }
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,305 @@
+package com.ordermanager.service.changelog;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of change records, stored in memory-mapped segment files that are rotated at a fixed size.
+ * Every record gets the next offset, starting at 0, and consumers tail the log by reading from the offset
+ * after the last one they saw.
+ * <p>
+ * A record is {@code int length | int crc32c | long offset | payload}; the checksum covers the offset and
+ * the payload, and the length is written last. On startup each segment is scanned up to the first record that
+ * is incomplete or fails its checksum. A torn tail left by a crash is cleared and the log continues from the
+ * last intact record. Only the newest {@code retained-segments} segments are kept, so a consumer that falls
+ * further behind than that skips ahead to the oldest retained offset.
+ * <p>
+ * Appends are serialized; reads are lock-free and see every record whose append has returned.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.change-log.enabled", havingValue = "true")
+public class ChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+
+    static final int HEADER_BYTES = 16;
+
+    // one sparse index entry per this many records, so a read seeks close to its offset instead of scanning
+    private static final int INDEX_INTERVAL = 64;
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    public record Entry(long offset, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int retainedSegments;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // guarded by this
+    private Segment active;
+
+    private volatile long endOffset;
+
+    public ChangeLog(@Value("${order-manager.change-log.directory:${java.io.tmpdir}/order-manager/change-log}") String directory,
+                     @Value("${order-manager.change-log.segment-bytes:67108864}") int segmentBytes,
+                     @Value("${order-manager.change-log.retained-segments:16}") int retainedSegments) throws IOException {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must exceed " + HEADER_BYTES + " bytes: " + segmentBytes);
+        }
+        if (retainedSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be retained: " + retainedSegments);
+        }
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.retainedSegments = retainedSegments;
+
+        Files.createDirectories(this.directory);
+        this.lockChannel = FileChannel.open(this.directory.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.lock = tryLock(lockChannel, this.directory);
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(baseOffset, Segment.open(file, baseOffset));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, Segment.create(segmentPath(0), 0, segmentBytes));
+        }
+        this.active = segments.lastEntry().getValue();
+        this.endOffset = active.nextOffset;
+        logger.info("Change log at {} holds offsets {} to {} in {} segments", this.directory, startOffset(), endOffset,
+                segments.size());
+    }
+
+    /**
+     * Appends a record and returns its offset. It is visible to readers straight away, and durable once
+     * {@link #flush()} has returned.
+     */
+    public synchronized long append(byte[] payload) {
+        if (HEADER_BYTES + payload.length > segmentBytes) {
+            throw new IllegalArgumentException("Change record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (!active.fits(payload.length)) {
+            roll();
+        }
+        long offset = endOffset;
+        active.write(offset, payload);
+        endOffset = offset + 1;
+        return offset;
+    }
+
+    /**
+     * Forces the records appended so far to disk.
+     */
+    public synchronized void flush() {
+        active.buffer.force();
+    }
+
+    /**
+     * Up to {@code maxEntries} records from {@code fromOffset} on, in offset order; empty once the reader has
+     * caught up. Offsets that were dropped by retention are skipped.
+     */
+    public List<Entry> read(long fromOffset, int maxEntries) {
+        List<Entry> entries = new ArrayList<>(Math.min(maxEntries, 1024));
+        Map.Entry<Long, Segment> current = segments.floorEntry(fromOffset);
+        if (current == null) {
+            current = segments.firstEntry();
+        }
+        while (current != null && entries.size() < maxEntries) {
+            current.getValue().read(fromOffset, maxEntries, entries);
+            current = segments.higherEntry(current.getKey());
+        }
+        return entries;
+    }
+
+    /**
+     * Oldest offset still retained.
+     */
+    public long startOffset() {
+        return segments.firstKey();
+    }
+
+    /**
+     * Offset the next record will get.
+     */
+    public long endOffset() {
+        return endOffset;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        active.buffer.force();
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void roll() {
+        active.buffer.force();
+        try {
+            active = Segment.create(segmentPath(endOffset), endOffset, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(active.baseOffset, active);
+
+        while (segments.size() > retainedSegments) {
+            // readers still holding the segment keep their mapping; the file is only unlinked
+            Segment oldest = segments.pollFirstEntry().getValue();
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                logger.warn("Could not delete change log segment {}", oldest.path, e);
+            }
+        }
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private static FileLock tryLock(FileChannel channel, Path directory) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Change log directory is in use by another log: " + directory);
+        }
+        return lock;
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long baseOffset;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+
+        // record offset -> byte position, for every INDEX_INTERVAL-th record
+        private final ConcurrentSkipListMap<Long, Integer> index = new ConcurrentSkipListMap<>();
+
+        // written by the appender only; a reader that sees a size also sees the records below it
+        private volatile int size;
+        private volatile long nextOffset;
+
+        private Segment(Path path, long baseOffset, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+            this.nextOffset = baseOffset;
+        }
+
+        static Segment create(Path path, long baseOffset, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return new Segment(path, baseOffset, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            }
+        }
+
+        static Segment open(Path path, long baseOffset) throws IOException {
+            Segment segment;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = new Segment(path, baseOffset, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            }
+            segment.recover();
+            return segment;
+        }
+
+        boolean fits(int payloadBytes) {
+            return size + HEADER_BYTES + payloadBytes <= capacity;
+        }
+
+        void write(long offset, byte[] payload) {
+            int position = size;
+            buffer.putLong(position + 8, offset);
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position + 4, checksum(position, payload.length));
+            buffer.putInt(position, payload.length);
+            if ((offset - baseOffset) % INDEX_INTERVAL == 0) {
+                index.put(offset, position);
+            }
+            nextOffset = offset + 1;
+            size = position + HEADER_BYTES + payload.length;
+        }
+
+        void read(long fromOffset, int maxEntries, List<Entry> entries) {
+            int limit = size;
+            Map.Entry<Long, Integer> seek = index.floorEntry(fromOffset);
+            int position = seek == null ? 0 : seek.getValue();
+            while (position < limit && entries.size() < maxEntries) {
+                int length = buffer.getInt(position);
+                long offset = buffer.getLong(position + 8);
+                if (offset >= fromOffset) {
+                    byte[] payload = new byte[length];
+                    buffer.get(position + HEADER_BYTES, payload);
+                    entries.add(new Entry(offset, payload));
+                }
+                position += HEADER_BYTES + length;
+            }
+        }
+
+        private void recover() {
+            int position = 0;
+            long offset = baseOffset;
+            while (position + HEADER_BYTES <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > capacity - position - HEADER_BYTES
+                        || buffer.getLong(position + 8) != offset
+                        || buffer.getInt(position + 4) != checksum(position, length)) {
+                    break;
+                }
+                if ((offset - baseOffset) % INDEX_INTERVAL == 0) {
+                    index.put(offset, position);
+                }
+                position += HEADER_BYTES + length;
+                offset++;
+            }
+
+            if (position + Integer.BYTES <= capacity && buffer.getInt(position) != 0) {
+                logger.warn("Discarding torn change log record at offset {} in {}", offset, path);
+                byte[] zeros = new byte[64 * 1024];
+                for (int from = position; from < capacity; from += zeros.length) {
+                    buffer.put(from, zeros, 0, Math.min(zeros.length, capacity - from));
+                }
+                buffer.force();
+            }
+            size = position;
+            nextOffset = offset;
+        }
+
+        private int checksum(int position, int payloadBytes) {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(position + 8, Long.BYTES + payloadBytes));
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ordermanager.service.changelog;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanager.model.OutboxEvent;
+import com.ordermanager.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves committed outbox events into the {@link ChangeLog}, oldest first. Each record is the JSON object
+ * {@code {eventId, aggregateType, aggregateId, changeType, occurredAt, data}}, where {@code data} is the
+ * {@code OrderChangedEvent} or {@code ProductChangedEvent}.
+ * <p>
+ * A batch is appended and forced to disk before its outbox rows are deleted. If that delete fails to
+ * commit, the batch is appended again. Delivery is therefore at least once, and consumers skip event ids they
+ * have already applied. Like the analytics fold, this assumes a single application instance.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.change-log.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private record ChangeRecord(UUID eventId, String aggregateType, UUID aggregateId, String changeType,
+                                LocalDateTime occurredAt, @JsonRawValue String data) {
+    }
+
+    private final OutboxEventRepository outboxRepository;
+    private final ChangeLog changeLog;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository, ChangeLog changeLog, ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${order-manager.change-log.relay-batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.changeLog = changeLog;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Relays everything committed so far, in batches of {@code relay-batch-size}.
+     *
+     * @return the number of events relayed
+     */
+    @Scheduled(fixedDelayString = "${order-manager.change-log.relay-interval-ms:500}")
+    @PreDestroy
+    public synchronized int relay() {
+        int relayed = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> relayBatch());
+            relayed += batch;
+        } while (batch == batchSize);
+        return relayed;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.findAllByOrderByEventIdAsc(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (OutboxEvent event : events) {
+            changeLog.append(toRecord(event));
+        }
+        changeLog.flush();
+        outboxRepository.deleteAllInBatch(events);
+        return events.size();
+    }
+
+    private byte[] toRecord(OutboxEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(new ChangeRecord(event.getEventId(), event.getAggregateType(),
+                    event.getAggregateId(), event.getChangeType(), event.getOccurredAt(), event.getPayload()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event " + event.getEventId(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ordermanager.service.changelog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.ProductChangedEvent;
+import com.ordermanager.model.OutboxEvent;
+import com.ordermanager.repository.OutboxEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Records every order and product change in the outbox, inside the transaction that makes it, so the change
+ * log gets exactly the changes that committed.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.change-log.enabled", havingValue = "true")
+public class OutboxWriter {
+
+    public static final String ORDER = "ORDER";
+    public static final String PRODUCT = "PRODUCT";
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        write(ORDER, event.orderId(), event.type(), event);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        write(PRODUCT, event.productId(), event.type(), event);
+    }
+
+    private void write(String aggregateType, UUID aggregateId, ChangeType type, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+        outboxRepository.save(new OutboxEvent(aggregateType, aggregateId, type.name(), payload, LocalDateTime.now(UTC)));
+    }
+}
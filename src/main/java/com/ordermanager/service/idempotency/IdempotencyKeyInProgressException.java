@@ -0,0 +1,11 @@
+package com.ordermanager.service.idempotency;
+
+/**
+ * The first request with an {@code Idempotency-Key} is still running and did not finish within the wait timeout.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
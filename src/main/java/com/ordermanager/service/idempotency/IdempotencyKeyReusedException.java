@@ -0,0 +1,11 @@
+package com.ordermanager.service.idempotency;
+
+/**
+ * An {@code Idempotency-Key} was sent again with a different request than the one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,207 @@
+package com.ordermanager.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ordermanager.model.IdempotencyRecord;
+import com.ordermanager.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays its response to every retry.
+ * <p>
+ * Responses are kept in the {@code idempotency_records} table, written in the same transaction as the
+ * request's own work, and in a bounded in-memory cache in front of it. A retry arriving while the first
+ * request is still running waits for it rather than running again. Only successful responses are stored:
+ * a request that failed can be retried with the same key.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    public record StoredResponse(int status, String body) {
+    }
+
+    public record Outcome(StoredResponse response, boolean replayed) {
+    }
+
+    private record Entry(String requestHash, StoredResponse response) {
+    }
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Cache<String, Entry> responses;
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${order-manager.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${order-manager.idempotency.cache-maximum-size:10000}") long cacheMaximumSize,
+                            @Value("${order-manager.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the stored response for {@code key}, or runs {@code action} in a transaction and stores
+     * what it returns.
+     *
+     * @param request the raw request, compared with the first one sent with the key
+     * @throws IdempotencyKeyReusedException      if the key was first used for a different request
+     * @throws IdempotencyKeyInProgressException  if the first request is still running after the wait timeout
+     */
+    public Outcome execute(String key, String request, Supplier<StoredResponse> action) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        Entry cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return replay(key, requestHash, cached);
+        }
+
+        CompletableFuture<Entry> execution = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            return replay(key, requestHash, await(key, running));
+        }
+
+        try {
+            Optional<IdempotencyRecord> existing = recordRepository.findById(key);
+            Entry stored = existing.filter(IdempotencyStore::isLive).map(IdempotencyStore::entryOf).orElse(null);
+            boolean replayed = stored != null;
+            if (stored == null) {
+                try {
+                    stored = run(key, requestHash, existing.isPresent(), action);
+                } catch (DataIntegrityViolationException e) {
+                    // either another instance committed the key first, or the request itself broke a constraint
+                    stored = load(key);
+                    if (stored == null) {
+                        throw e;
+                    }
+                    logger.debug("Idempotency key {} was committed concurrently, replaying the stored response", key);
+                    replayed = true;
+                }
+            }
+            responses.put(key, stored);
+            execution.complete(stored);
+            return replayed ? replay(key, requestHash, stored) : new Outcome(stored.response(), false);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    /**
+     * Drops stored responses past their time to live.
+     */
+    @Scheduled(fixedDelayString = "${order-manager.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> recordRepository.deleteExpired(LocalDateTime.now(UTC)));
+        if (purged != null && purged > 0) {
+            logger.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    /**
+     * Runs the action and records its response in one transaction. If another instance committed the
+     * same key first, the primary key rolls this attempt back, work included. An expired record still
+     * holding the key is deleted in the same transaction first.
+     */
+    private Entry run(String key, String requestHash, boolean expired, Supplier<StoredResponse> action) {
+        return transactionTemplate.execute(status -> {
+            if (expired) {
+                recordRepository.deleteExpired(key, LocalDateTime.now(UTC));
+            }
+            StoredResponse response = action.get();
+            LocalDateTime now = LocalDateTime.now(UTC);
+            recordRepository.saveAndFlush(new IdempotencyRecord(key, requestHash, response.status(),
+                    response.body(), now, now.plus(ttl)));
+            return new Entry(requestHash, response);
+        });
+    }
+
+    private Entry load(String key) {
+        return recordRepository.findById(key)
+                .filter(IdempotencyStore::isLive)
+                .map(IdempotencyStore::entryOf)
+                .orElse(null);
+    }
+
+    private static boolean isLive(IdempotencyRecord record) {
+        return record.getExpiresAt().isAfter(LocalDateTime.now(UTC));
+    }
+
+    private static Entry entryOf(IdempotencyRecord record) {
+        return new Entry(record.getRequestHash(), new StoredResponse(record.getResponseStatus(), record.getResponseBody()));
+    }
+
+    private Entry await(String key, CompletableFuture<Entry> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("A request with this " + HEADER + " is still in progress: " + key);
+        } catch (ExecutionException e) {
+            // the first request failed; its error is this request's answer too
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for " + HEADER + ": " + key);
+        }
+    }
+
+    private static Outcome replay(String key, String requestHash, Entry entry) {
+        if (!entry.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(HEADER + " " + key + " was already used for a different request");
+        }
+        return new Outcome(entry.response(), true);
+    }
+
+    static String hash(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request == null ? new byte[0] : request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.ordermanager.service.intake;
+
+public enum IntakeStatus {
+    PENDING,
+    ACCEPTED,
+    REJECTED
+}
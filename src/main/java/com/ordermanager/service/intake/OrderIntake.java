@@ -0,0 +1,215 @@
+package com.ordermanager.service.intake;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ordermanager.dto.OrderIntakeDTO;
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.service.OrderService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts orders for asynchronous creation and commits them in groups.
+ * <p>
+ * Submissions wait in a bounded queue that a single committer thread drains. Everything that queued up
+ * while the previous group was committing goes into the next {@link OrderService#createOrders} call, so
+ * under load many orders share one transaction and one JDBC batch, and with a single writer they never
+ * contend with each other for product rows. If a group as a whole cannot commit, its orders are retried
+ * one transaction each so that only the offending order fails.
+ */
+@Component
+public class OrderIntake implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntake.class);
+
+    record Submission(UUID handle, Order order) {
+    }
+
+    private final OrderService orderService;
+    private final int maxBatchSize;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<UUID, OrderIntakeDTO> statuses;
+
+    private volatile boolean running;
+    private volatile boolean shuttingDown;
+    private Thread committer;
+
+    public OrderIntake(OrderService orderService,
+                       @Value("${order-manager.intake.queue-capacity:10000}") int queueCapacity,
+                       @Value("${order-manager.intake.max-batch-size:50}") int maxBatchSize,
+                       @Value("${order-manager.intake.status-retention-seconds:3600}") long statusRetentionSeconds,
+                       @Value("${order-manager.intake.max-statuses:100000}") long maxStatuses) {
+        this.orderService = orderService;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxStatuses)
+                .expireAfterWrite(Duration.ofSeconds(statusRetentionSeconds))
+                .build();
+    }
+
+    /**
+     * Queues the order for creation and returns its pending status, whose handle can be polled with
+     * {@link #getStatus(UUID)}.
+     *
+     * @throws RejectedExecutionException if the queue is full or the intake is shutting down
+     */
+    public OrderIntakeDTO submit(Order order) {
+        if (shuttingDown) {
+            throw new RejectedExecutionException("Order intake is shutting down");
+        }
+
+        UUID handle = UUID.randomUUID();
+        OrderIntakeDTO pending = new OrderIntakeDTO(handle, IntakeStatus.PENDING, null, null);
+        statuses.put(handle, pending);
+        if (!queue.offer(new Submission(handle, order))) {
+            statuses.invalidate(handle);
+            throw new RejectedExecutionException("Order intake queue is full, please retry shortly");
+        }
+        return pending;
+    }
+
+    public OrderIntakeDTO getStatus(UUID handle) {
+        OrderIntakeDTO status = statuses.getIfPresent(handle);
+        if (status == null) {
+            throw new EntityNotFoundException("No order submission found for handle: " + handle);
+        }
+        return status;
+    }
+
+    /**
+     * Commits whatever is queued, in groups of at most {@code max-batch-size}.
+     *
+     * @return the number of submissions processed
+     */
+    int drain() {
+        int processed = 0;
+        List<Submission> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            commit(batch);
+            processed += batch.size();
+            batch.clear();
+        }
+        return processed;
+    }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Order intake committer failed on a batch of {} orders", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Submission> batch) {
+        List<OrderService.Outcome> outcomes;
+        try {
+            outcomes = orderService.createOrders(batch.stream().map(Submission::order).toList());
+        } catch (RuntimeException e) {
+            logger.warn("Group commit of {} orders failed, committing them one by one", batch.size(), e);
+            batch.forEach(this::commitAlone);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            record(batch.get(i).handle(), outcomes.get(i).order(), outcomes.get(i).rejection());
+        }
+    }
+
+    private void commitAlone(Submission submission) {
+        Order order = submission.order();
+        // ids handed out by the rolled back group must not be mistaken for existing rows
+        order.setOrderId(null);
+        for (OrderItem item : order.getOrderItems()) {
+            item.setOrderItemId(null);
+        }
+
+        try {
+            record(submission.handle(), orderService.createOrder(order), null);
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            record(submission.handle(), order, e);
+        } catch (RuntimeException e) {
+            logger.error("Order submission {} could not be created", submission.handle(), e);
+            record(submission.handle(), order, e);
+        }
+    }
+
+    private void record(UUID handle, Order order, RuntimeException rejection) {
+        if (rejection == null) {
+            statuses.put(handle, new OrderIntakeDTO(handle, IntakeStatus.ACCEPTED, order.getOrderId(), null));
+        } else {
+            String message = rejection instanceof IllegalArgumentException || rejection instanceof EntityNotFoundException
+                    ? rejection.getMessage()
+                    : "The order could not be created";
+            statuses.put(handle, new OrderIntakeDTO(handle, IntakeStatus.REJECTED, null, message));
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        committer = new Thread(this::run, "order-intake-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @Override
+    public void stop() {
+        // the committer finishes what is already queued before it exits
+        shuttingDown = true;
+        running = false;
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (committer.isAlive()) {
+            // draining now would commit from the queue alongside the committer
+            logger.warn("Order intake committer did not finish within 30s, leaving {} queued orders", queue.size());
+            return;
+        }
+        // picks up submissions that slipped in while the committer was exiting
+        drain();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request can submit to a stopped committer.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
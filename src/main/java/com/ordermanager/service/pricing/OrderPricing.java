@@ -0,0 +1,85 @@
+package com.ordermanager.service.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Order arithmetic on amounts held as a {@code long} count of minor units of the configured currency, e.g.
+ * cents for USD. Prices are converted once, when the catalog loads a product, and must already be whole minor
+ * units. Line subtotals and order totals
+ * are then plain overflow-checked {@code long} arithmetic. They only become {@code BigDecimal}s when they are
+ * set on the entities.
+ * <p>
+ * An amount that no longer fits is rejected as an {@link IllegalArgumentException} rather than wrapping
+ * around.
+ */
+@Component
+public class OrderPricing {
+
+    private final Currency currency;
+    private final int scale;
+
+    public OrderPricing(@Value("${order-manager.pricing.currency:USD}") String currencyCode) {
+        this.currency = Currency.getInstance(currencyCode);
+        this.scale = Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+
+    public Currency currency() {
+        return currency;
+    }
+
+    /**
+     * Number of decimal places of the currency, and so of every amount returned by {@link #toAmount(long)}.
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Converts an amount to minor units, rounding half up to the currency's decimal places.
+     */
+    public long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is out of range: " + amount);
+        }
+    }
+
+    /**
+     * Converts a unit price to minor units without rounding. A price with more decimal places than the currency
+     * has is rejected, since the line would store one unit price and charge another.
+     */
+    public long priceToMinorUnits(BigDecimal price) {
+        try {
+            return price.setScale(scale).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Price " + price.toPlainString() + " has more decimal places than "
+                    + currency.getCurrencyCode() + " allows, or is out of range");
+        }
+    }
+
+    public BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    public long lineTotal(long unitPrice, int quantity) {
+        try {
+            return Math.multiplyExact(unitPrice, quantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Line total is out of range: " + quantity + " x " + toAmount(unitPrice));
+        }
+    }
+
+    public long add(long total, long amount) {
+        try {
+            return Math.addExact(total, amount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Order total is out of range");
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.ordermanager.service.search;
+
+import com.ordermanager.datasource.PrimaryStickiness;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.event.ProductChangedEvent;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.OrderRepository;
+import com.ordermanager.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory trigram index over product names and descriptions, mapped to orders through a
+ * product to orders posting list.
+ * <p>
+ * It answers the same question as {@code OrderRepository.findByProductNameAndDescription}: orders with at
+ * least one product whose name contains {@code name} and whose description contains {@code description},
+ * case-sensitively, with a {@code null} term matching anything. Trigram postings narrow the candidates and
+ * the stored text confirms the substring match; terms shorter than a trigram are checked against the
+ * stored text of every product, which never leaves memory.
+ * <p>
+ * The index is loaded once at startup and then follows committed product and order changes.
+ */
+@Component
+public class OrderSearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchIndex.class);
+
+    private static final int GRAM = 3;
+
+    private record IndexedProduct(String name, String description) {
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+
+    private final ConcurrentMap<UUID, IndexedProduct> products = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<UUID>> productsByGram = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Set<UUID>> ordersByProduct = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Set<UUID>> productsByOrder = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public OrderSearchIndex(ProductRepository productRepository, OrderRepository orderRepository,
+                            @Value("${order-manager.search.index.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+
+        // updates only arrive as events from here on, so load from the primary rather than a lagging replica
+        PrimaryStickiness.require();
+        try {
+            for (Product product : productRepository.findAll()) {
+                indexProduct(product.getProductId(), product.getName(), product.getDescription());
+            }
+            for (OrderRepository.OrderProductPair pair : orderRepository.findAllOrderProductPairs()) {
+                link(pair.getOrderId(), pair.getProductId());
+            }
+            ready = true;
+            logger.info("Order search index loaded {} products and {} orders", products.size(), productsByOrder.size());
+        } catch (RuntimeException e) {
+            logger.warn("Order search index could not be loaded, searches fall back to the database", e);
+        } finally {
+            PrimaryStickiness.clear();
+        }
+    }
+
+    /**
+     * Whether searches can be served from the index.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Set<UUID> search(String name, String description) {
+        Set<UUID> orderIds = new HashSet<>();
+        for (UUID productId : candidates(name != null ? name : description)) {
+            IndexedProduct product = products.get(productId);
+            if (product != null && matches(product.name(), name) && matches(product.description(), description)) {
+                orderIds.addAll(ordersByProduct.getOrDefault(productId, Set.of()));
+            }
+        }
+        return orderIds;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        unindexProduct(event.productId());
+        switch (event.type()) {
+            case CREATED, UPDATED -> indexProduct(event.productId(), event.name(), event.description());
+            case DELETED -> {
+                // order links of a deleted product can no longer match anything
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        UUID orderId = event.orderId();
+        Set<UUID> previous = productsByOrder.remove(orderId);
+        if (previous != null) {
+            for (UUID productId : previous) {
+                Set<UUID> orders = ordersByProduct.get(productId);
+                if (orders != null) {
+                    orders.remove(orderId);
+                }
+            }
+        }
+        if (event.after() != null) {
+            for (OrderSnapshot.Line line : event.after().lines()) {
+                link(orderId, line.productId());
+            }
+        }
+    }
+
+    private Collection<UUID> candidates(String term) {
+        if (term == null || term.length() < GRAM) {
+            return products.keySet();
+        }
+
+        Set<UUID> candidates = null;
+        for (String gram : grams(term)) {
+            Set<UUID> posting = productsByGram.getOrDefault(gram, Set.of());
+            if (candidates == null) {
+                candidates = new HashSet<>(posting);
+            } else {
+                candidates.retainAll(posting);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates == null ? List.of() : candidates;
+    }
+
+    private void indexProduct(UUID productId, String name, String description) {
+        products.put(productId, new IndexedProduct(name, description));
+        for (String gram : productGrams(name, description)) {
+            // add inside the map operation, or a concurrent unindex could drop the posting just before the add
+            productsByGram.compute(gram, (key, posting) -> addTo(posting, productId));
+        }
+    }
+
+    private void unindexProduct(UUID productId) {
+        IndexedProduct product = products.remove(productId);
+        if (product == null) {
+            return;
+        }
+        for (String gram : productGrams(product.name(), product.description())) {
+            productsByGram.computeIfPresent(gram, (key, posting) -> {
+                posting.remove(productId);
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+    }
+
+    private void link(UUID orderId, UUID productId) {
+        ordersByProduct.compute(productId, (key, orders) -> addTo(orders, orderId));
+        productsByOrder.compute(orderId, (key, products) -> addTo(products, productId));
+    }
+
+    private static Set<UUID> addTo(Set<UUID> set, UUID id) {
+        Set<UUID> target = set != null ? set : ConcurrentHashMap.newKeySet();
+        target.add(id);
+        return target;
+    }
+
+    private static boolean matches(String text, String term) {
+        return term == null || (text != null && text.contains(term));
+    }
+
+    private static Set<String> productGrams(String name, String description) {
+        Set<String> grams = grams(name);
+        grams.addAll(grams(description));
+        return grams;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,191 @@
+package com.ordermanager.service.search;
+
+import com.ordermanager.datasource.PrimaryStickiness;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Order ids kept sorted by {@code (createdAt, orderId)} in hourly buckets, with a running count per bucket.
+ * <p>
+ * Range reads only visit the buckets the range covers, so their cost follows the size of the result rather
+ * than of the orders table, and counts for whole buckets come straight from the counters. The index is
+ * loaded once at startup and then follows committed order creations and deletions ({@code createdAt} never
+ * changes).
+ */
+@Component
+public class OrderTimelineIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTimelineIndex.class);
+
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final UUID MAX_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    public record Entry(LocalDateTime createdAt, UUID orderId) {
+
+        static final Comparator<Entry> ORDER = Comparator.comparing(Entry::createdAt).thenComparing(Entry::orderId);
+    }
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+
+    private final ConcurrentSkipListMap<LocalDateTime, NavigableSet<Entry>> buckets = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<LocalDateTime, AtomicInteger> bucketCounts = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public OrderTimelineIndex(OrderRepository orderRepository,
+                              @Value("${order-manager.timeline.index.enabled:true}") boolean enabled) {
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+
+        // a lagging replica would leave out recent orders for good
+        PrimaryStickiness.require();
+        try {
+            List<OrderRepository.OrderTimelineEntry> entries = orderRepository.findAllTimelineEntries();
+            for (OrderRepository.OrderTimelineEntry entry : entries) {
+                add(new Entry(entry.getCreatedAt(), entry.getOrderId()));
+            }
+            ready = true;
+            logger.info("Order timeline index loaded {} orders", entries.size());
+        } catch (RuntimeException e) {
+            logger.warn("Order timeline index could not be loaded, date filters fall back to the database", e);
+        } finally {
+            PrimaryStickiness.clear();
+        }
+    }
+
+    /**
+     * Whether date range reads can be served from the index.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Orders created within {@code [from, to]}, oldest first.
+     */
+    public Stream<Entry> stream(LocalDateTime from, LocalDateTime to) {
+        return stream(from, to, null);
+    }
+
+    /**
+     * Up to {@code limit} orders created within {@code [from, to]} that sort after {@code after}, oldest first.
+     */
+    public List<Entry> page(LocalDateTime from, LocalDateTime to, Entry after, int limit) {
+        return stream(from, to, after).limit(limit).toList();
+    }
+
+    public long count(LocalDateTime from, LocalDateTime to) {
+        long count = 0;
+        for (Map.Entry<LocalDateTime, NavigableSet<Entry>> bucket : bucketsWithin(from, to).entrySet()) {
+            LocalDateTime start = bucket.getKey();
+            if (!start.isBefore(from) && TimeBucket.HOUR.next(start).isBefore(to)) {
+                count += countOf(start);
+            } else {
+                count += slice(bucket.getValue(), from, to, null).size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of orders per hour or day bucket within {@code [from, to]}, only listing non-empty buckets.
+     */
+    public SortedMap<LocalDateTime, Long> countByBucket(LocalDateTime from, LocalDateTime to, TimeBucket granularity) {
+        SortedMap<LocalDateTime, Long> counts = new TreeMap<>();
+        for (Map.Entry<LocalDateTime, NavigableSet<Entry>> bucket : bucketsWithin(from, to).entrySet()) {
+            LocalDateTime start = bucket.getKey();
+            long count = !start.isBefore(from) && TimeBucket.HOUR.next(start).isBefore(to)
+                    ? countOf(start)
+                    : slice(bucket.getValue(), from, to, null).size();
+            if (count > 0) {
+                counts.merge(granularity.startOf(start), count, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(new Entry(event.after().createdAt(), event.after().orderId()));
+            case DELETED -> remove(new Entry(event.before().createdAt(), event.before().orderId()));
+            case UPDATED -> {
+                // createdAt is not updatable
+            }
+        }
+    }
+
+    private Stream<Entry> stream(LocalDateTime from, LocalDateTime to, Entry after) {
+        return bucketsWithin(from, to).values().stream()
+                .flatMap(bucket -> slice(bucket, from, to, after).stream());
+    }
+
+    private SortedMap<LocalDateTime, NavigableSet<Entry>> bucketsWithin(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return new TreeMap<>();
+        }
+        return buckets.subMap(TimeBucket.HOUR.startOf(from), true, TimeBucket.HOUR.startOf(to), true);
+    }
+
+    private static NavigableSet<Entry> slice(NavigableSet<Entry> bucket, LocalDateTime from, LocalDateTime to, Entry after) {
+        Entry lower = new Entry(from, MIN_ID);
+        boolean lowerInclusive = true;
+        if (after != null && Entry.ORDER.compare(after, lower) >= 0) {
+            lower = after;
+            lowerInclusive = false;
+        }
+        Entry upper = new Entry(to, MAX_ID);
+        if (Entry.ORDER.compare(lower, upper) > 0) {
+            return new ConcurrentSkipListSet<>(Entry.ORDER);
+        }
+        return bucket.subSet(lower, lowerInclusive, upper, true);
+    }
+
+    private long countOf(LocalDateTime bucketStart) {
+        AtomicInteger count = bucketCounts.get(bucketStart);
+        return count == null ? 0 : count.get();
+    }
+
+    private void add(Entry entry) {
+        LocalDateTime bucketStart = TimeBucket.HOUR.startOf(entry.createdAt());
+        if (buckets.computeIfAbsent(bucketStart, key -> new ConcurrentSkipListSet<>(Entry.ORDER)).add(entry)) {
+            bucketCounts.computeIfAbsent(bucketStart, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private void remove(Entry entry) {
+        LocalDateTime bucketStart = TimeBucket.HOUR.startOf(entry.createdAt());
+        NavigableSet<Entry> bucket = buckets.get(bucketStart);
+        if (bucket != null && bucket.remove(entry)) {
+            bucketCounts.get(bucketStart).decrementAndGet();
+        }
+    }
+}
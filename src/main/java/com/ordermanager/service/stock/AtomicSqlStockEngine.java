@@ -0,0 +1,37 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves stock with a single conditional {@code UPDATE} per line, so concurrent buyers of the same product
+ * queue on the row lock instead of failing on a version conflict. A line that cannot be served updates
+ * no row and fails the surrounding transaction, which rolls back every line applied before it.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.stock.engine", havingValue = "atomic")
+public class AtomicSqlStockEngine implements StockEngine {
+
+    private final ProductRepository productRepository;
+
+    public AtomicSqlStockEngine(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public void reserve(Product product, int quantity) {
+        if (productRepository.decrementInventory(product.getProductId(), quantity) == 0) {
+            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+        }
+    }
+
+    @Override
+    public void release(Product product, int quantity) {
+        if (productRepository.incrementInventory(product.getProductId(), quantity) == 0) {
+            throw new EntityNotFoundException("Product not found for id: " + product.getProductId());
+        }
+    }
+}
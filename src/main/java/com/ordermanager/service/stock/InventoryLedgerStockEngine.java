@@ -0,0 +1,193 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.model.StockLedgerEntry;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.repository.StockLedgerEntryRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserves stock against in-process CAS counters instead of the {@code products} row.
+ * <p>
+ * Every movement is also written as a {@link StockLedgerEntry} in the caller's transaction, so the
+ * database always holds the truth as {@code inventory_count + SUM(unflushed deltas)}: a restart simply
+ * rebuilds counters from that sum on first use. A scheduled flush folds the entries into
+ * {@code products.inventory_count} in one set-based update per product.
+ * <p>
+ * Reservations take effect in memory immediately and are given back if the transaction rolls back,
+ * while releases only become available after commit, so the counters never promise stock the database
+ * does not have. This assumes a single application instance owns the ledger.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.stock.engine", havingValue = "ledger")
+public class InventoryLedgerStockEngine implements StockEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedgerStockEngine.class);
+
+    private final ProductRepository productRepository;
+    private final StockLedgerEntryRepository ledgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<UUID, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    public InventoryLedgerStockEngine(ProductRepository productRepository,
+                                      StockLedgerEntryRepository ledgerRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void reserve(Product product, int quantity) {
+        AtomicInteger counter = counterFor(product.getProductId());
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        afterCompletion(committed -> {
+            if (!committed) {
+                counter.addAndGet(quantity);
+            }
+        });
+        ledgerRepository.save(new StockLedgerEntry(product.getProductId(), -quantity));
+    }
+
+    @Override
+    public void release(Product product, int quantity) {
+        AtomicInteger counter = counterFor(product.getProductId());
+        ledgerRepository.save(new StockLedgerEntry(product.getProductId(), quantity));
+        afterCompletion(committed -> {
+            if (committed) {
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    /**
+     * Replaces the pending entries this transaction can see with one that cancels them, and moves the counter by
+     * the difference between the new count and the stock it replaces once the overwrite commits. Reservations
+     * still in flight keep the units they took, and entries committed after the read stay on top of the new count.
+     */
+    @Override
+    public void onStockOverwritten(Product product) {
+        UUID productId = product.getProductId();
+        StockLedgerEntryRepository.StockLevel level = ledgerRepository.findStockLevelAsStored(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId));
+        if (level.getPending() != 0) {
+            ledgerRepository.save(new StockLedgerEntry(productId, Math.toIntExact(-level.getPending())));
+        }
+
+        AtomicInteger counter = install(productId, level.getStock());
+        int delta = Math.toIntExact(product.getInventoryCount() - level.getStock());
+        afterCompletion(committed -> {
+            if (committed) {
+                counter.addAndGet(delta);
+            }
+        });
+    }
+
+    @Override
+    public void onProductDeleted(UUID productId) {
+        afterCompletion(committed -> counters.remove(productId));
+    }
+
+    /**
+     * Folds every pending ledger entry into {@code products.inventory_count}.
+     * Entries are claimed with a batch marker first, so movements committed while the flush runs are
+     * left for the next round instead of being counted twice or lost.
+     */
+    @Scheduled(fixedDelayString = "${order-manager.stock.ledger.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        Integer flushed = transactionTemplate.execute(status -> {
+            UUID batch = UUID.randomUUID();
+            if (ledgerRepository.claimUnflushed(batch) == 0) {
+                return 0;
+            }
+
+            List<StockLedgerEntryRepository.ProductDelta> deltas = ledgerRepository.sumByFlushBatch(batch);
+            for (StockLedgerEntryRepository.ProductDelta delta : deltas) {
+                if (delta.getDelta() != 0) {
+                    productRepository.incrementInventory(delta.getProductId(), Math.toIntExact(delta.getDelta()));
+                }
+            }
+            ledgerRepository.deleteByFlushBatch(batch);
+            return deltas.size();
+        });
+
+        if (flushed != null && flushed > 0) {
+            logger.debug("Flushed stock ledger for {} products", flushed);
+        }
+    }
+
+    @Override
+    public int availableStock(Product product) {
+        return availableStock(product.getProductId());
+    }
+
+    /**
+     * Stock currently available to new reservations, read from memory when the product has been used.
+     */
+    public int availableStock(UUID productId) {
+        return counterFor(productId).get();
+    }
+
+    private AtomicInteger counterFor(UUID productId) {
+        AtomicInteger counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        return install(productId, ledgerRepository.findCurrentStock(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId)));
+    }
+
+    /**
+     * Installs a counter loaded outside the map, so no query ever runs under its locks. Nothing can move the
+     * stock of a product without a counter, so when two loads race either one is current and the loser adopts
+     * the winner's counter.
+     */
+    private AtomicInteger install(UUID productId, long stock) {
+        AtomicInteger loaded = new AtomicInteger(Math.toIntExact(stock));
+        AtomicInteger existing = counters.putIfAbsent(productId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.completed(true);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+}
@@ -0,0 +1,270 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.InventoryMovement;
+import com.ordermanager.model.InventorySnapshot;
+import com.ordermanager.model.MovementType;
+import com.ordermanager.model.Product;
+import com.ordermanager.model.id.UuidV7;
+import com.ordermanager.repository.InventoryMovementRepository;
+import com.ordermanager.repository.InventorySnapshotRepository;
+import com.ordermanager.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event-sourced stock: every change is an {@link InventoryMovement} inserted in the caller's transaction, and
+ * nothing ever updates a shared stock row, so concurrent orders for the same product never wait on each other.
+ * <p>
+ * The stock of a product is its latest {@link InventorySnapshot} plus the movements recorded since, or
+ * {@code inventory_count} plus every movement before the first snapshot. A scheduled job folds the pending
+ * movements into a new snapshot per product and prunes the ones it supersedes, so reads only ever sum a short
+ * tail. Movements themselves are kept, which lets {@link #reconcile} replay a product's whole history.
+ * <p>
+ * Like the ledger engine, reservations are checked against in-process counters loaded on first use: they take
+ * effect immediately and are given back on rollback, while releases only count after commit. This assumes a
+ * single application instance owns the counters.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.stock.engine", havingValue = "movements")
+public class InventoryMovementStockEngine implements StockEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryMovementStockEngine.class);
+
+    private final ProductRepository productRepository;
+    private final InventoryMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxHistory;
+    private final ConcurrentMap<UUID, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Held by the snapshot job for its whole transaction and by overwrites while they pin an opening snapshot,
+     * so the two never both take {@code inventory_count} as the base of the same product.
+     */
+    private final Object snapshotLock = new Object();
+
+    public InventoryMovementStockEngine(ProductRepository productRepository,
+                                        InventoryMovementRepository movementRepository,
+                                        InventorySnapshotRepository snapshotRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${order-manager.stock.movements.max-history:1000}") int maxHistory) {
+        this.productRepository = productRepository;
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxHistory = maxHistory;
+    }
+
+    @Override
+    public void reserve(Product product, int quantity) {
+        AtomicInteger counter = counterFor(product.getProductId());
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        afterCompletion(committed -> {
+            if (!committed) {
+                counter.addAndGet(quantity);
+            }
+        });
+        movementRepository.save(new InventoryMovement(product.getProductId(), MovementType.RESERVE, -quantity));
+    }
+
+    @Override
+    public void release(Product product, int quantity) {
+        AtomicInteger counter = counterFor(product.getProductId());
+        movementRepository.save(new InventoryMovement(product.getProductId(), MovementType.RELEASE, quantity));
+        afterCompletion(committed -> {
+            if (committed) {
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    /**
+     * Records the difference between the new count and the current stock as a restock or an adjustment, and
+     * moves the counter by the same amount once it commits, so reservations still in flight keep the units they
+     * took. Before the product's first snapshot its stock is based on {@code inventory_count}, which this
+     * overwrite is about to change, so the stored count is pinned as an opening snapshot first.
+     */
+    @Override
+    public void onStockOverwritten(Product product) {
+        UUID productId = product.getProductId();
+        long current;
+        synchronized (snapshotLock) {
+            InventoryMovementRepository.StockLevel level = movementRepository.findStockLevelAsStored(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId));
+            if (level.getSnapshotStock() == null) {
+                snapshotRepository.save(InventorySnapshot.opening(productId, level.getInventoryCount()));
+            }
+            current = level.getStock();
+        }
+
+        AtomicInteger counter = install(productId, current);
+        int delta = Math.toIntExact(product.getInventoryCount() - current);
+        if (delta != 0) {
+            movementRepository.save(new InventoryMovement(productId, delta > 0 ? MovementType.RESTOCK : MovementType.ADJUST, delta));
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                counter.addAndGet(delta);
+            }
+        });
+    }
+
+    @Override
+    public void onProductDeleted(UUID productId) {
+        afterCompletion(committed -> counters.remove(productId));
+    }
+
+    /**
+     * Folds every pending movement into a new snapshot per product and drops the snapshots it replaces.
+     * Movements are claimed with a batch marker first, so the ones committed while the job runs are left for
+     * the next round instead of being counted twice or lost.
+     */
+    @Scheduled(fixedDelayString = "${order-manager.stock.movements.snapshot-interval-ms:5000}")
+    @PreDestroy
+    public void snapshot() {
+        Integer snapshotted;
+        synchronized (snapshotLock) {
+            snapshotted = transactionTemplate.execute(status -> {
+                UUID batch = UuidV7.next();
+                if (movementRepository.claimUnsnapshotted(batch) == 0) {
+                    return 0;
+                }
+
+                List<InventoryMovementRepository.ProductDelta> deltas = movementRepository.sumBySnapshotBatch(batch);
+                for (InventoryMovementRepository.ProductDelta delta : deltas) {
+                    InventorySnapshot previous = snapshotRepository.findFirstByProductIdOrderBySnapshotIdDesc(delta.getProductId())
+                            .orElseGet(() -> productRepository.findById(delta.getProductId())
+                                    .map(product -> InventorySnapshot.opening(product.getProductId(), product.getInventoryCount()))
+                                    .orElse(null));
+                    if (previous == null) {
+                        // Deleted product: its movements stay stamped as history, there is no stock left to track
+                        continue;
+                    }
+
+                    InventorySnapshot next = snapshotRepository.save(previous.next(batch, delta.getDelta(), delta.getMovements()));
+                    snapshotRepository.deleteOlderThan(next.getProductId(), next.getSnapshotId());
+                }
+                return deltas.size();
+            });
+        }
+
+        if (snapshotted != null && snapshotted > 0) {
+            logger.debug("Snapshotted inventory movements for {} products", snapshotted);
+        }
+    }
+
+    @Override
+    public int availableStock(Product product) {
+        return availableStock(product.getProductId());
+    }
+
+    /**
+     * Stock currently available to new reservations, read from memory when the product has been used.
+     */
+    public int availableStock(UUID productId) {
+        return counterFor(productId).get();
+    }
+
+    /**
+     * The most recent movements of a product, newest first.
+     */
+    public List<Movement> history(UUID productId, int limit) {
+        if (limit < 1 || limit > maxHistory) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxHistory);
+        }
+        return movementRepository.findByProductIdOrderByMovementIdDesc(productId, Limit.of(limit)).stream()
+                .map(Movement::of)
+                .toList();
+    }
+
+    /**
+     * Compares the stock derived from the latest snapshot with a replay of the product's whole history and with
+     * the in-memory counter. The counter also holds reservations of transactions still in flight, so it may
+     * briefly differ under load.
+     */
+    public Reconciliation reconcile(UUID productId) {
+        InventoryMovementRepository.Replay replay = transactionTemplate.execute(status -> movementRepository.replay(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId)));
+        AtomicInteger counter = counters.get(productId);
+        return new Reconciliation(productId, replay.getStock(), replay.getReplayed(),
+                counter != null ? counter.get() : null, replay.getMovementCount());
+    }
+
+    private AtomicInteger counterFor(UUID productId) {
+        AtomicInteger counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        return install(productId, movementRepository.findStockLevel(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId))
+                .getStock());
+    }
+
+    /**
+     * Keeps the first counter installed for a product; the load itself happens before, outside any map lock.
+     */
+    private AtomicInteger install(UUID productId, long stock) {
+        AtomicInteger loaded = new AtomicInteger(Math.toIntExact(stock));
+        AtomicInteger existing = counters.putIfAbsent(productId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.completed(true);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    public record Movement(UUID movementId, MovementType type, int delta, boolean snapshotted, LocalDateTime occurredAt) {
+
+        static Movement of(InventoryMovement movement) {
+            return new Movement(movement.getMovementId(), movement.getType(), movement.getDelta(),
+                    movement.getSnapshotBatch() != null, movement.getOccurredAt());
+        }
+    }
+
+    public record Reconciliation(UUID productId, long stock, long replayedStock, Integer cachedStock, long movementCount) {
+
+        public boolean isConsistent() {
+            return stock == replayedStock && (cachedStock == null || cachedStock == stock);
+        }
+    }
+}
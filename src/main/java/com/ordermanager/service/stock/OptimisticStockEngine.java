@@ -0,0 +1,93 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-modify-write on the loaded entity, relying on {@code @Version} to detect concurrent changes.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.stock.engine", havingValue = "optimistic", matchIfMissing = true)
+public class OptimisticStockEngine implements StockEngine {
+
+    private final ProductRepository productRepository;
+    private final StockMetrics stockMetrics;
+
+    public OptimisticStockEngine(ProductRepository productRepository, StockMetrics stockMetrics) {
+        this.productRepository = productRepository;
+        this.stockMetrics = stockMetrics;
+    }
+
+    @Override
+    public void reserve(Product product, int quantity) {
+        if (product.getInventoryCount() < quantity) {
+            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+        }
+
+        product.setInventoryCount(product.getInventoryCount() - quantity);
+        saveProduct(product);
+    }
+
+    @Override
+    public void release(Product product, int quantity) {
+        product.setInventoryCount(product.getInventoryCount() + quantity);
+        saveProduct(product);
+    }
+
+    private void saveProduct(Product product) {
+        try {
+            productRepository.save(product);
+        } catch (OptimisticLockException | OptimisticLockingFailureException e) {
+            // the repository translates the JPA exception, so both forms can show up here
+            stockMetrics.recordConflict();
+            throw new IllegalStateException("Concurrent update detected for product: " + product.getName());
+        }
+        flushBeforeCommit();
+    }
+
+    /**
+     * A managed product is only written when the transaction flushes, which normally happens inside the
+     * commit, so a lost race would never reach the catch above. Flushing just before the commit keeps the
+     * writes batched with the rest of the transaction and still lets the conflict be counted.
+     */
+    private void flushBeforeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    productRepository.flush();
+                } catch (OptimisticLockingFailureException e) {
+                    if (isProductConflict(e)) {
+                        stockMetrics.recordConflict();
+                    }
+                    throw e;
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OptimisticStockEngine.this);
+            }
+        });
+    }
+
+    private static boolean isProductConflict(OptimisticLockingFailureException e) {
+        // a failed JDBC batch does not say which entity lost, and this transaction did write a product
+        return !(e instanceof ObjectOptimisticLockingFailureException failure)
+                || failure.getPersistentClassName() == null
+                || Product.class.getName().equals(failure.getPersistentClassName());
+    }
+}
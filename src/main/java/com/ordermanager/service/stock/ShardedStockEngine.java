@@ -0,0 +1,197 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.model.ProductStockShard;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.repository.ProductStockShardRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits each product's stock over a fixed number of {@link ProductStockShard} rows so that concurrent
+ * buyers of the same product update different rows.
+ * <p>
+ * A product is sharded the first time it is touched: its {@code inventory_count} is spread evenly over the
+ * shards and set to zero. A reservation starts at a random shard and moves on to the next one when a
+ * shard cannot serve the whole quantity; only when no single shard can, it drains several shards. A
+ * background job evens out skewed shards so that the fast path keeps hitting.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.stock.engine", havingValue = "sharded")
+public class ShardedStockEngine implements StockEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedStockEngine.class);
+
+    private final ProductRepository productRepository;
+    private final ProductStockShardRepository shardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int shardCount;
+    private final Set<UUID> shardedProducts = ConcurrentHashMap.newKeySet();
+
+    public ShardedStockEngine(ProductRepository productRepository,
+                              ProductStockShardRepository shardRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${order-manager.stock.sharded.shards:8}") int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.productRepository = productRepository;
+        this.shardRepository = shardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void reserve(Product product, int quantity) {
+        UUID productId = product.getProductId();
+        ensureSharded(productId);
+
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            if (shardRepository.decrementShard(productId, (start + i) % shardCount, quantity) == 1) {
+                return;
+            }
+        }
+
+        // No single shard holds enough: take what each one has, and give it back if the total falls short
+        List<ProductStockShard> shards = shardRepository.findByProductIdOrderByShardIndex(productId);
+        List<int[]> taken = new ArrayList<>();
+        int remaining = quantity;
+        for (ProductStockShard shard : shards) {
+            int take = Math.min(shard.getQuantity(), remaining);
+            if (take > 0 && shardRepository.decrementShard(productId, shard.getShardIndex(), take) == 1) {
+                taken.add(new int[]{shard.getShardIndex(), take});
+                remaining -= take;
+                if (remaining == 0) {
+                    return;
+                }
+            }
+        }
+
+        for (int[] shardAndQuantity : taken) {
+            shardRepository.incrementShard(productId, shardAndQuantity[0], shardAndQuantity[1]);
+        }
+        throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+    }
+
+    @Override
+    public void release(Product product, int quantity) {
+        UUID productId = product.getProductId();
+        ensureSharded(productId);
+        shardRepository.incrementShard(productId, ThreadLocalRandom.current().nextInt(shardCount), quantity);
+    }
+
+    @Override
+    public int availableStock(Product product) {
+        return Math.toIntExact(product.getInventoryCount() + shardRepository.sumQuantity(product.getProductId()));
+    }
+
+    @Override
+    public void onStockOverwritten(Product product) {
+        List<ProductStockShard> shards = shardRepository.findForUpdate(product.getProductId());
+        if (shards.isEmpty()) {
+            return;
+        }
+
+        distribute(shards, product.getInventoryCount());
+        product.setInventoryCount(0);
+    }
+
+    @Override
+    public void onProductDeleted(UUID productId) {
+        shardRepository.deleteByProductId(productId);
+        shardedProducts.remove(productId);
+    }
+
+    /**
+     * Evens out the shards of every sharded product whose slices have drifted apart.
+     * A round that loses a lock race with order traffic is skipped and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${order-manager.stock.sharded.rebalance-interval-ms:5000}")
+    public void rebalance() {
+        for (UUID productId : shardRepository.findShardedProductIds()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<ProductStockShard> shards = shardRepository.findForUpdate(productId);
+                    if (isSkewed(shards)) {
+                        distribute(shards, shards.stream().mapToInt(ProductStockShard::getQuantity).sum());
+                    }
+                });
+            } catch (DataAccessException e) {
+                logger.debug("Skipped rebalancing product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private void ensureSharded(UUID productId) {
+        if (shardedProducts.contains(productId)) {
+            return;
+        }
+        if (shardRepository.existsByProductId(productId)) {
+            shardedProducts.add(productId);
+            return;
+        }
+
+        // The product row lock makes concurrent first buyers wait for a single initialisation
+        Product product = productRepository.findForUpdate(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found for id: " + productId));
+        if (!shardRepository.existsByProductId(productId)) {
+            List<ProductStockShard> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new ProductStockShard(productId, i, 0));
+            }
+            distribute(shards, product.getInventoryCount());
+            shardRepository.saveAll(shards);
+            shardRepository.flush();
+            product.setInventoryCount(0);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    shardedProducts.add(productId);
+                }
+            });
+        } else {
+            shardedProducts.add(productId);
+        }
+    }
+
+    private static boolean isSkewed(List<ProductStockShard> shards) {
+        int total = 0;
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (ProductStockShard shard : shards) {
+            total += shard.getQuantity();
+            min = Math.min(min, shard.getQuantity());
+            max = Math.max(max, shard.getQuantity());
+        }
+        return !shards.isEmpty() && max - min > Math.max(1, total / shards.size() / 2);
+    }
+
+    private static void distribute(List<ProductStockShard> shards, int total) {
+        int share = total / shards.size();
+        int remainder = total % shards.size();
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).setQuantity(share + (i < remainder ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+
+import java.util.UUID;
+
+/**
+ * Strategy used by the order flows to move units in and out of a product's stock.
+ * The active implementation is selected with {@code order-manager.stock.engine}.
+ */
+public interface StockEngine {
+
+    /**
+     * Takes {@code quantity} units out of stock.
+     *
+     * @throws IllegalArgumentException if the product does not have enough stock left
+     */
+    void reserve(Product product, int quantity);
+
+    /**
+     * Puts {@code quantity} units back into stock.
+     */
+    void release(Product product, int quantity);
+
+    /**
+     * Stock currently available for the product, for engines that keep it outside {@code inventory_count}.
+     */
+    default int availableStock(Product product) {
+        return product.getInventoryCount();
+    }
+
+    /**
+     * Called when the product's inventory count has been set to an absolute value outside of the order flows.
+     */
+    default void onStockOverwritten(Product product) {
+    }
+
+    /**
+     * Called when a product is removed from the catalog.
+     */
+    default void onProductDeleted(UUID productId) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.ordermanager.service.stock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters for reservations that did not go through, whichever engine is active.
+ */
+@Component
+public class StockMetrics {
+
+    private final Counter rejections;
+    private final Counter conflicts;
+
+    public StockMetrics(MeterRegistry meterRegistry) {
+        this.rejections = Counter.builder("order-manager.stock.rejections")
+                .description("Reservations turned down for insufficient stock")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("order-manager.stock.conflicts")
+                .description("Stock writes that lost an optimistic-lock race")
+                .register(meterRegistry);
+    }
+
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    public void recordConflict() {
+        conflicts.increment();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ordermanager.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final boolean failOverBudget;
+    private final int repeatThreshold;
+
+    public QueryBudgetConfig(MeterRegistry meterRegistry,
+                             @Value("${order-manager.query-budget.default:20}") int defaultBudget,
+                             @Value("${order-manager.query-budget.mode:log}") String mode,
+                             @Value("${order-manager.query-budget.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.failOverBudget = "fail".equalsIgnoreCase(mode);
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor(meterRegistry, defaultBudget, failOverBudget, repeatThreshold))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,8 @@
+package com.ordermanager.web;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
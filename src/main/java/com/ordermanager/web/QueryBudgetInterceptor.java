@@ -0,0 +1,106 @@
+package com.ordermanager.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of every API request, including lazy loads triggered while the response is
+ * serialized, and checks them against the endpoint's {@link QueryBudget}.
+ * <p>
+ * Over-budget requests are logged, or fail outright in {@code fail} mode. The count is recorded per
+ * endpoint as {@code order-manager.http.queries} and left on the request as {@link #QUERY_COUNT_ATTRIBUTE}.
+ */
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String QUERY_COUNT_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".queryCount";
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private static final String SCOPE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".scope";
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final boolean failOverBudget;
+    private final int repeatThreshold;
+
+    public QueryBudgetInterceptor(MeterRegistry meterRegistry, int defaultBudget, boolean failOverBudget,
+                                  int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.failOverBudget = failOverBudget;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryCounter.open(budgetOf(handler), failOverBudget));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // work done on the async thread is not counted; close what the request thread did
+        complete(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        complete(request);
+    }
+
+    private void complete(HttpServletRequest request) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryCounter.Scope scope)) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+        request.setAttribute(QUERY_COUNT_ATTRIBUTE, scope.count());
+
+        String uri = String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        DistributionSummary.builder("order-manager.http.queries")
+                .description("SQL statements run per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.count());
+
+        if (scope.overBudget()) {
+            Counter.builder("order-manager.http.query-budget.exceeded")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("{} {} ran {} SQL statements, over its budget of {}",
+                    request.getMethod(), uri, scope.count(), scope.budget());
+        }
+
+        Map.Entry<String, Integer> repeated = scope.mostRepeated();
+        if (repeated != null && repeated.getValue() >= repeatThreshold) {
+            logger.warn("{} {} ran the same statement {} times, likely an N+1 pattern: {}",
+                    request.getMethod(), uri, repeated.getValue(), repeated.getKey());
+        }
+    }
+
+    private int budgetOf(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
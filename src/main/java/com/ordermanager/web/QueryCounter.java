@@ -0,0 +1,97 @@
+package com.ordermanager.web;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a {@link Scope} is open.
+ * <p>
+ * Registered as the session factory's {@link StatementInspector}; outside a scope it only costs a
+ * thread-local read per statement.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Statements counted for one unit of work, usually a request.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final int budget;
+        private final boolean failOverBudget;
+        private final Map<String, Integer> executions = new HashMap<>();
+        private int count;
+
+        private Scope(int budget, boolean failOverBudget) {
+            this.budget = budget;
+            this.failOverBudget = failOverBudget;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int budget() {
+            return budget;
+        }
+
+        public boolean overBudget() {
+            return count > budget;
+        }
+
+        /**
+         * The statement run most often in this scope with how often it ran, the usual sign of an N+1 pattern.
+         */
+        public Map.Entry<String, Integer> mostRepeated() {
+            return executions.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .orElse(null);
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+
+        private void record(String sql) {
+            count++;
+            executions.merge(sql, 1, Integer::sum);
+            if (failOverBudget && count > budget) {
+                throw new QueryBudgetExceededException(
+                        "Query budget of " + budget + " statements exceeded by: " + sql);
+            }
+        }
+    }
+
+    /**
+     * Starts counting on the current thread, replacing any scope still open on it.
+     *
+     * @param failOverBudget whether the statement that goes over the budget fails instead of running
+     */
+    public static Scope open(int budget, boolean failOverBudget) {
+        Scope scope = new Scope(budget, failOverBudget);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * The scope open on the current thread, or {@code null}.
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+}
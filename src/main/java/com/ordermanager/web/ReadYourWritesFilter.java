@@ -0,0 +1,85 @@
+package com.ordermanager.web;
+
+import com.ordermanager.datasource.PrimaryStickiness;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Keeps a client's reads on the primary for a while after it changed something, so it does not read a
+ * replica that has not caught up with its own write yet.
+ * <p>
+ * The deadline travels in a cookie set on every mutating request, which keeps the primary pinned across
+ * instances without any server-side session.
+ */
+@Component
+@ConditionalOnProperty(name = "order-manager.datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "om-primary-until";
+
+    private final int stickySeconds;
+
+    public ReadYourWritesFilter(@Value("${order-manager.datasource.replica.sticky-seconds:5}") int stickySeconds) {
+        this.stickySeconds = stickySeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return stickySeconds <= 0 || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        if (isMutating(request)) {
+            // set up front: once the body is written the response can no longer take a cookie
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + stickySeconds * 1000L));
+            cookie.setPath("/api");
+            cookie.setMaxAge(stickySeconds);
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+            PrimaryStickiness.require();
+        } else if (pinnedUntil(request) > now) {
+            PrimaryStickiness.require();
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryStickiness.clear();
+        }
+    }
+
+    private static boolean isMutating(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !(HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method));
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
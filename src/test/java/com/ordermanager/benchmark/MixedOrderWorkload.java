@@ -0,0 +1,150 @@
+package com.ordermanager.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP driver for a running instance: every client sends its next request as soon as the
+ * previous one returns, picking from a read-heavy mix of order creates, lookups, pages and range counts.
+ */
+class MixedOrderWorkload {
+
+    private static final Pattern ORDER_ID = Pattern.compile("\"orderId\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+
+    record Result(String label, long requests, long errors, double throughput, double p50Ms, double p99Ms) {
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %8d req %6d err %10.1f req/s   p50 %8.2f ms   p99 %8.2f ms",
+                    label, requests, errors, throughput, p50Ms, p99Ms);
+        }
+    }
+
+    private final URI baseUri;
+    private final List<String> productNames;
+    private final HttpClient httpClient;
+    private final List<String> orderIds = new CopyOnWriteArrayList<>();
+
+    MixedOrderWorkload(URI baseUri, List<String> productNames) {
+        this.baseUri = baseUri;
+        this.productNames = productNames;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+    }
+
+    Result run(String label, int clients, Duration warmup, Duration measurement) throws InterruptedException {
+        drive(clients, warmup, new ArrayList<>(), new AtomicLong());
+
+        List<long[]> latencies = new CopyOnWriteArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        long started = System.nanoTime();
+        drive(clients, measurement, latencies, errors);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(java.util.Arrays::stream).sorted().toArray();
+        return new Result(label, all.length, errors.get(), all.length / seconds,
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private void drive(int clients, Duration duration, List<long[]> latencies, AtomicLong errors)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            executor.execute(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    if (!sendNext()) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = java.util.Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                latencies.add(java.util.Arrays.copyOf(samples, count));
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private boolean sendNext() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        try {
+            if (roll < 20 || orderIds.isEmpty()) {
+                return createOrder(random);
+            }
+            if (roll < 60) {
+                return send(get("/api/orders/" + orderIds.get(random.nextInt(orderIds.size())))).statusCode() == 200;
+            }
+            if (roll < 85) {
+                return send(get("/api/orders?size=20")).statusCode() == 200;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            String range = "{\"startDate\":\"" + now.minusHours(1) + "\",\"endDate\":\"" + now.plusHours(1) + "\"}";
+            return send(HttpRequest.newBuilder(baseUri.resolve("/api/orders/count-by-date-range?granularity=HOUR"))
+                    .header("Content-Type", "application/json")
+                    .method("GET", HttpRequest.BodyPublishers.ofString(range))
+                    .build()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean createOrder(ThreadLocalRandom random) throws IOException, InterruptedException {
+        String productName = productNames.get(random.nextInt(productNames.size()));
+        String body = "{\"status\":\"NEW\",\"shippingAddress\":\"1 Benchmark Way\",\"paymentMethod\":\"card\","
+                + "\"orderItems\":[{\"productName\":\"" + productName + "\",\"quantity\":1}]}";
+        HttpResponse<String> response = send(HttpRequest.newBuilder(baseUri.resolve("/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+
+        Matcher matcher = ORDER_ID.matcher(response.body());
+        if (response.statusCode() / 100 == 2 && matcher.find()) {
+            orderIds.add(matcher.group(1));
+            return true;
+        }
+        return false;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
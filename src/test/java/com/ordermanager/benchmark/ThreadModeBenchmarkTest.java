@@ -0,0 +1,73 @@
+package com.ordermanager.benchmark;
+
+import com.ordermanager.OrderManagerApplication;
+import com.ordermanager.model.Product;
+import com.ordermanager.service.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the mixed order workload against the platform-thread and the virtual-thread mode and prints
+ * throughput and latency side by side. The virtual-thread run needs a Java 21 runtime.
+ * <p>
+ * {@code ./mvnw test -Pbenchmark -Dbenchmark.clients=400 -Dbenchmark.seconds=30}
+ */
+@Tag("benchmark")
+class ThreadModeBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 200);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 5));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 20));
+    private static final int PRODUCTS = 50;
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws InterruptedException {
+        List<MixedOrderWorkload.Result> results = new ArrayList<>();
+        results.add(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true));
+        } else {
+            System.out.println("Virtual-thread mode skipped, it needs Java 21 (running " + Runtime.version() + ")");
+        }
+
+        System.out.println("Mixed order workload, " + CLIENTS + " clients, " + MEASUREMENT.toSeconds() + " s");
+        results.forEach(System.out::println);
+    }
+
+    private MixedOrderWorkload.Result run(boolean virtualThreads) throws InterruptedException {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderManagerApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false")) {
+            List<String> productNames = seedProducts(context.getBean(ProductService.class));
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            MixedOrderWorkload workload = new MixedOrderWorkload(URI.create("http://localhost:" + port), productNames);
+            return workload.run(mode + " threads", CLIENTS, WARMUP, MEASUREMENT);
+        }
+    }
+
+    private static List<String> seedProducts(ProductService productService) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Benchmark Product " + i);
+            product.setDescription("Seeded for the thread mode benchmark");
+            product.setCategory("Benchmark");
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setInventoryCount(1_000_000);
+            names.add(productService.createProduct(product).getName());
+        }
+        return names;
+    }
+}
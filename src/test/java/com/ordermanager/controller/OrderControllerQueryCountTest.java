@@ -0,0 +1,288 @@
+package com.ordermanager.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanager.model.IdempotencyRecord;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.IdempotencyRecordRepository;
+import com.ordermanager.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.ordermanager.web.QueryCountMatchers.queryCount;
+import static java.time.ZoneOffset.UTC;
+import static com.ordermanager.web.QueryCountMatchers.queryCountOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements the order and product endpoints run, so an N+1 regression fails here rather than in production.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1",
+        "order-manager.query-budget.mode=fail"
+})
+@AutoConfigureMockMvc
+class OrderControllerQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String productName;
+
+    @BeforeEach
+    void setUp() {
+        productName = "Widget-" + UUID.randomUUID();
+        Product product = new Product();
+        product.setName(productName);
+        product.setDescription("A widget");
+        product.setPrice(new BigDecimal("2.50"));
+        product.setInventoryCount(1000);
+        productRepository.save(product);
+    }
+
+    @Test
+    void createOrderRunsFiveStatements() throws Exception {
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(1)))
+                .andExpect(status().isOk())
+                .andExpect(queryCount(5));
+    }
+
+    @Test
+    void getOrderByIdReadsOrderItemsAndProductNamesInOneStatement() throws Exception {
+        String orderId = orderIdOf(createOrder());
+
+        mockMvc.perform(get("/api/orders/{orderId}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems[0].productName").value(productName))
+                .andExpect(jsonPath("$.orderItems[0].subtotal").value(2.5))
+                .andExpect(queryCount(1));
+    }
+
+    @Test
+    void getOrdersPageQueryCountDoesNotGrowWithPageSize() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createOrder();
+        }
+
+        MvcResult small = mockMvc.perform(get("/api/orders").param("size", "1")).andExpect(status().isOk()).andReturn();
+        MvcResult large = mockMvc.perform(get("/api/orders").param("size", "5")).andExpect(status().isOk()).andReturn();
+        assertThat(queryCountOf(small)).isEqualTo(1);
+        assertThat(queryCountOf(large)).isEqualTo(queryCountOf(small));
+    }
+
+    @Test
+    void unchangedOrderPollIsNotModifiedAfterOneStatement() throws Exception {
+        String orderId = orderIdOf(createOrder());
+        String eTag = mockMvc.perform(get("/api/orders/{orderId}", orderId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotBlank();
+
+        mockMvc.perform(get("/api/orders/{orderId}", orderId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""))
+                .andExpect(queryCount(1));
+    }
+
+    @Test
+    void changedOrderPollReturnsNewRepresentation() throws Exception {
+        String orderId = orderIdOf(createOrder());
+        String eTag = mockMvc.perform(get("/api/orders/{orderId}", orderId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/orders/{orderId}", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(2)))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/api/orders/{orderId}", orderId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems[0].quantity").value(2))
+                .andExpect(queryCount(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newETag).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void renamedProductChangesOrderETag() throws Exception {
+        String orderId = orderIdOf(createOrder());
+        String eTag = mockMvc.perform(get("/api/orders/{orderId}", orderId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Product product = productRepository.findByName(productName).orElseThrow();
+        product.setName(productName + "-renamed");
+        productRepository.save(product);
+
+        mockMvc.perform(get("/api/orders/{orderId}", orderId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems[0].productName").value(productName + "-renamed"));
+    }
+
+    @Test
+    void stockMoveOnLineProductKeepsOrderETag() throws Exception {
+        String orderId = orderIdOf(createOrder());
+        String eTag = mockMvc.perform(get("/api/orders/{orderId}", orderId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        int productVersion = productRepository.findByName(productName).orElseThrow().getVersion();
+
+        createOrder();
+        assertThat(productRepository.findByName(productName).orElseThrow().getVersion()).isGreaterThan(productVersion);
+
+        mockMvc.perform(get("/api/orders/{orderId}", orderId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(queryCount(1));
+    }
+
+    @Test
+    void unchangedProductPollIsNotModified() throws Exception {
+        UUID productId = productRepository.findByName(productName).orElseThrow().getProductId();
+        String eTag = mockMvc.perform(get("/api/products/{productId}", productId))
+                .andExpect(status().isOk())
+                .andExpect(queryCount(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products/{productId}", productId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(queryCount(1));
+    }
+
+    @Test
+    void getOrdersPageListsSummariesWithoutLines() throws Exception {
+        createOrder();
+
+        mockMvc.perform(get("/api/orders").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].itemCount").value(1))
+                .andExpect(jsonPath("$.orders[0].orderItems").doesNotExist());
+    }
+
+    @Test
+    void getProductsReadsCardsInOneStatement() throws Exception {
+        createOrder();
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == '%s')].price".formatted(productName)).value(2.5))
+                .andExpect(jsonPath("$[0].orderItems").doesNotExist())
+                .andExpect(queryCount(1));
+    }
+
+    @Test
+    void updateOrderRunsSevenStatements() throws Exception {
+        String orderId = orderIdOf(createOrder());
+
+        mockMvc.perform(put("/api/orders/{orderId}", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(3)))
+                .andExpect(status().isOk())
+                .andExpect(queryCount(7));
+    }
+
+    @Test
+    void idempotentRetryRunsNoStatements() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(queryCount(0));
+    }
+
+    @Test
+    void expiredIdempotencyKeyRunsAgain() throws Exception {
+        String key = UUID.randomUUID().toString();
+        LocalDateTime past = LocalDateTime.now(UTC).minusDays(2);
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key, "expired", 200, "{}", past, past.plusDays(1)));
+
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        assertThat(idempotencyRecordRepository.findById(key).orElseThrow().getExpiresAt()).isAfter(LocalDateTime.now(UTC));
+    }
+
+    @Test
+    void recordsQueryCountPerEndpoint() throws Exception {
+        String orderId = orderIdOf(createOrder());
+        long before = queriesSummaryCount();
+
+        mockMvc.perform(get("/api/orders/{orderId}", orderId)).andExpect(status().isOk());
+
+        assertThat(queriesSummaryCount()).isEqualTo(before + 1);
+    }
+
+    private long queriesSummaryCount() {
+        DistributionSummary summary = meterRegistry.find("order-manager.http.queries")
+                .tag("method", "GET")
+                .tag("uri", "/api/orders/{orderId}")
+                .summary();
+        return summary == null ? 0 : summary.count();
+    }
+
+    private MvcResult createOrder() throws Exception {
+        return mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(1)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private String orderJson(int quantity) {
+        return """
+                {"status": "NEW", "shippingAddress": "1 Main St", "paymentMethod": "card",
+                 "orderItems": [{"productName": "%s", "quantity": %d}]}
+                """.formatted(productName, quantity);
+    }
+
+    private String orderIdOf(MvcResult result) throws Exception {
+        JsonNode order = objectMapper.readTree(result.getResponse().getContentAsString());
+        return order.get("orderId").asText();
+    }
+}
@@ -0,0 +1,139 @@
+package com.ordermanager.datasource;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.web.ReadYourWritesFilter;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two H2 databases, copying the primary into the replica by hand to stand in for replication,
+ * so that which one served a read shows in how many orders it returns.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "order-manager.datasource.replica.enabled=true",
+        "order-manager.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "order-manager.datasource.replica.sticky-seconds=60"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    private String productName;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        productName = "Routed-" + System.nanoTime();
+        Product product = new Product();
+        product.setName(productName);
+        product.setDescription("Routed product");
+        product.setPrice(new BigDecimal("4.00"));
+        product.setInventoryCount(100);
+        productRepository.save(product);
+
+        createOrder();
+        replicate();
+        // only on the primary from here on
+        createOrder();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DELETE FROM order_items");
+        new JdbcTemplate(primary).execute("DELETE FROM orders");
+    }
+
+    @Test
+    void shouldServeReadOnlyQueriesFromTheReplica() throws Exception {
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1));
+    }
+
+    @Test
+    void shouldReadFromThePrimaryWhilePinnedAfterAWrite() throws Exception {
+        MvcResult write = createOrder();
+        Cookie pinned = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        mockMvc.perform(get("/api/orders").cookie(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(3));
+    }
+
+    @Test
+    void shouldGoBackToTheReplicaOncePinExpires() throws Exception {
+        Cookie expired = new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() - 1));
+
+        mockMvc.perform(get("/api/orders").cookie(expired))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1));
+    }
+
+    @Test
+    void shouldKeepWritesOnThePrimary() throws Exception {
+        createOrder();
+
+        assertThat(new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isEqualTo(3);
+        assertThat(new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isEqualTo(1);
+    }
+
+    private MvcResult createOrder() throws Exception {
+        return mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"status": "NEW", "shippingAddress": "1 Main St", "paymentMethod": "card",
+                                 "orderItems": [{"productName": "%s", "quantity": 1}]}
+                                """.formatted(productName)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+                .andReturn();
+    }
+
+    private void replicate() throws Exception {
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            new JdbcTemplate(primary).execute("SCRIPT TO '" + script + "'");
+            JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+            replicaJdbc.execute("DROP ALL OBJECTS");
+            replicaJdbc.execute("RUNSCRIPT FROM '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+}
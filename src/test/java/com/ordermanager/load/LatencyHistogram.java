@@ -0,0 +1,66 @@
+package com.ordermanager.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets: every power of two of microseconds is split into
+ * {@value #SUB_BUCKETS} equal buckets, which keeps percentiles within about 12% of the true value.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+
+    void record(long nanos) {
+        counts.incrementAndGet(indexOf(Math.max(1, nanos / 1_000)));
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Upper bound, in milliseconds, of the bucket holding the given percentile, or 0 when nothing was recorded.
+     */
+    double percentileMs(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1_000.0;
+            }
+        }
+        return upperBoundMicros(counts.length() - 1) / 1_000.0;
+    }
+
+    private static int indexOf(long micros) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude < SUB_BUCKET_BITS) {
+            return (int) micros;
+        }
+        int subBucket = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min((magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    private static long upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (magnitude - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,225 @@
+package com.ordermanager.load;
+
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.model.Product;
+import com.ordermanager.service.OrderService;
+import com.ordermanager.service.ProductService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a weighted mix of concurrent order creates, updates and deletes through {@link OrderService}, and of
+ * restocks through {@link ProductService#updateProduct}, for a fixed time, and records per operation its latency
+ * histogram and how each call ended.
+ * <p>
+ * A call ends as {@code ok}, {@code rejected} (the service turned it down: not enough stock, or the order
+ * was already gone), {@code conflict} (it lost a race for a row and was rolled back) or {@code error}.
+ */
+class OrderLoadHarness {
+
+    enum Operation { CREATE, UPDATE, DELETE, RESTOCK }
+
+    enum Outcome { OK, REJECTED, CONFLICT, ERROR }
+
+    static final class Stats {
+
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final Map<Outcome, AtomicLong> outcomes = new EnumMap<>(Outcome.class);
+
+        Stats() {
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, new AtomicLong());
+            }
+        }
+
+        long count(Outcome outcome) {
+            return outcomes.get(outcome).get();
+        }
+    }
+
+    record Report(Duration elapsed, Map<Operation, Stats> stats) {
+
+        long total() {
+            return stats.values().stream().mapToLong(s -> s.latencies.count()).sum();
+        }
+
+        long count(Outcome outcome) {
+            return stats.values().stream().mapToLong(s -> s.count(outcome)).sum();
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsed.toMillis() / 1_000.0;
+            StringBuilder report = new StringBuilder(String.format("%d calls in %.1f s, %.1f calls/s%n",
+                    total(), seconds, total() / seconds));
+            stats.forEach((operation, s) -> report.append(String.format(
+                    "  %-6s %7d calls  p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms  ok %6d  rejected %5d  conflict %5d  error %3d%n",
+                    operation, s.latencies.count(), s.latencies.percentileMs(0.50), s.latencies.percentileMs(0.95),
+                    s.latencies.percentileMs(0.99), s.count(Outcome.OK), s.count(Outcome.REJECTED),
+                    s.count(Outcome.CONFLICT), s.count(Outcome.ERROR))));
+            return report.toString();
+        }
+    }
+
+    private final OrderService orderService;
+    private final ProductService productService;
+    private final List<UUID> productIds;
+    private final List<String> productNames;
+    private final Map<Operation, Integer> weights;
+    private final int maxQuantity;
+
+    private final Set<UUID> orderIds = ConcurrentHashMap.newKeySet();
+    private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param weights     relative share of each operation in the mix
+     * @param maxQuantity upper bound of the quantity asked for per order line
+     */
+    OrderLoadHarness(OrderService orderService, ProductService productService, Map<UUID, String> products,
+                     Map<Operation, Integer> weights, int maxQuantity) {
+        this.orderService = orderService;
+        this.productService = productService;
+        this.productIds = new ArrayList<>(products.keySet());
+        this.productNames = new ArrayList<>(products.values());
+        this.weights = weights;
+        this.maxQuantity = maxQuantity;
+    }
+
+    Report run(int threads, Duration duration) throws InterruptedException {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Operation operation = pickOperation();
+                    long start = System.nanoTime();
+                    Outcome outcome = call(operation);
+                    Stats operationStats = stats.get(operation);
+                    operationStats.latencies.record(System.nanoTime() - start);
+                    operationStats.outcomes.get(outcome).incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toSeconds() + 120, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Load threads did not finish in time");
+        }
+        return new Report(Duration.ofNanos(System.nanoTime() - started), stats);
+    }
+
+    /**
+     * Unexpected failures seen during the run, for the caller to report.
+     */
+    List<Throwable> errors() {
+        return errors;
+    }
+
+    private Outcome call(Operation operation) {
+        try {
+            switch (operation) {
+                case CREATE -> orderIds.add(orderService.createOrder(newOrder()).getOrderId());
+                case UPDATE -> {
+                    UUID orderId = anyOrderId();
+                    if (orderId == null) {
+                        return Outcome.REJECTED;
+                    }
+                    orderService.updateOrder(orderId, newOrder());
+                }
+                case DELETE -> {
+                    UUID orderId = anyOrderId();
+                    if (orderId == null || !orderIds.remove(orderId)) {
+                        return Outcome.REJECTED;
+                    }
+                    try {
+                        orderService.deleteOrder(orderId);
+                    } catch (RuntimeException e) {
+                        orderIds.add(orderId);
+                        throw e;
+                    }
+                }
+                case RESTOCK -> {
+                    UUID productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+                    // the new count is absolute, so leave room for reservations that land before it is written
+                    Product product = productService.getProductById(productId).orElseThrow();
+                    product.setInventoryCount(product.getInventoryCount() + maxQuantity * (10 + ThreadLocalRandom.current().nextInt(10)));
+                    productService.updateProduct(productId, product);
+                }
+            }
+            return Outcome.OK;
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            return Outcome.REJECTED;
+        } catch (IllegalStateException | ConcurrencyFailureException e) {
+            return Outcome.CONFLICT;
+        } catch (RuntimeException e) {
+            errors.add(e);
+            return Outcome.ERROR;
+        }
+    }
+
+    private Operation pickOperation() {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) {
+                return weight.getKey();
+            }
+        }
+        return Operation.CREATE;
+    }
+
+    private UUID anyOrderId() {
+        // a random starting point keeps threads from all picking the same order
+        int skip = ThreadLocalRandom.current().nextInt(Math.max(1, Math.min(orderIds.size(), 64)));
+        UUID picked = null;
+        for (UUID orderId : orderIds) {
+            picked = orderId;
+            if (skip-- == 0) {
+                break;
+            }
+        }
+        return picked;
+    }
+
+    private Order newOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order();
+        order.setStatus("NEW");
+        order.setShippingAddress("1 Load Street");
+        order.setPaymentMethod("card");
+
+        List<OrderItem> items = new ArrayList<>();
+        int lines = 1 + random.nextInt(Math.min(3, productNames.size()));
+        for (int line = 0; line < lines; line++) {
+            OrderItem item = new OrderItem();
+            item.setProductName(productNames.get(random.nextInt(productNames.size())));
+            item.setQuantity(1 + random.nextInt(maxQuantity));
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ordermanager.load;
+
+import com.ordermanager.OrderManagerApplication;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.OrderService;
+import com.ordermanager.service.ProductService;
+import com.ordermanager.service.stock.InventoryLedgerStockEngine;
+import com.ordermanager.service.stock.InventoryMovementStockEngine;
+import com.ordermanager.service.stock.StockEngine;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a few products with concurrent order creates, updates and deletes, and the odd restock, under each
+ * stock engine, then checks that stock was neither lost nor oversold: engines that keep stock in memory must
+ * agree with what they stored, no stored count is negative and, when no restock went through, for every
+ * product the stock left plus the quantity held by orders equals the stock it started with.
+ * <p>
+ * Tagged {@code load}, run with {@code ./mvnw test -Pload}. Tunable with {@code -Dload.engines=atomic,ledger},
+ * {@code -Dload.threads}, {@code -Dload.seconds}, {@code -Dload.products}, {@code -Dload.stock} and
+ * {@code -Dload.mix=create:50,update:30,delete:20,restock:2}.
+ */
+@Tag("load")
+class StockLoadTest {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 10));
+    private static final int PRODUCTS = Integer.getInteger("load.products", 3);
+    private static final int INITIAL_STOCK = Integer.getInteger("load.stock", 300);
+    private static final int MAX_QUANTITY = 3;
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"optimistic", "atomic", "ledger", "sharded", "movements"})
+    void shouldConserveStockUnderConcurrentOrders(String engine) throws InterruptedException {
+        Assumptions.assumeTrue(Arrays.asList(System.getProperty("load.engines", engine).split(",")).contains(engine),
+                () -> engine + " is not in load.engines");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--order-manager.stock.engine=" + engine,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + engine + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false")) {
+            Map<UUID, String> products = seedProducts(context.getBean(ProductService.class));
+
+            OrderLoadHarness harness = new OrderLoadHarness(context.getBean(OrderService.class),
+                    context.getBean(ProductService.class), products, mix(), MAX_QUANTITY);
+            OrderLoadHarness.Report report = harness.run(THREADS, DURATION);
+            System.out.println("Stock engine " + engine + ", " + THREADS + " threads, " + PRODUCTS + " products");
+            System.out.print(report);
+
+            harness.errors().forEach(Throwable::printStackTrace);
+            assertEquals(0, report.count(OrderLoadHarness.Outcome.ERROR), "unexpected failures, see the log");
+            assertTrue(report.count(OrderLoadHarness.Outcome.OK) > 0, "no call went through");
+
+            if (context.getBean(StockEngine.class) instanceof InventoryLedgerStockEngine ledger) {
+                ledger.flush();
+                ProductRepository productRepository = context.getBean(ProductRepository.class);
+                for (UUID productId : products.keySet()) {
+                    assertEquals(productRepository.findById(productId).orElseThrow().getInventoryCount(),
+                            ledger.availableStock(productId), "stock counter of " + productId + " drifted from the flushed count");
+                }
+            }
+            if (context.getBean(StockEngine.class) instanceof InventoryMovementStockEngine movements) {
+                movements.snapshot();
+                for (UUID productId : products.keySet()) {
+                    InventoryMovementStockEngine.Reconciliation reconciliation = movements.reconcile(productId);
+                    assertTrue(reconciliation.isConsistent(), "stock history of " + productId + " does not add up: " + reconciliation);
+                }
+            }
+            // an absolute restock racing with orders moves the stock by an amount only the engine knows
+            boolean restocked = report.stats().get(OrderLoadHarness.Operation.RESTOCK).count(OrderLoadHarness.Outcome.OK) > 0;
+            assertStockConserved(context, products.keySet(), !restocked);
+        }
+    }
+
+    private static void assertStockConserved(ConfigurableApplicationContext context, Iterable<UUID> productIds,
+                                             boolean againstInitialStock) {
+        ProductService productService = context.getBean(ProductService.class);
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, Long> ordered = new HashMap<>();
+            entityManager.createQuery("SELECT i.product.productId, SUM(i.quantity) FROM OrderItem i GROUP BY i.product.productId",
+                            Object[].class)
+                    .getResultList()
+                    .forEach(row -> ordered.put((UUID) row[0], (Long) row[1]));
+
+            for (UUID productId : productIds) {
+                int available = productService.getProductById(productId).orElseThrow().getInventoryCount();
+                long held = ordered.getOrDefault(productId, 0L);
+                assertTrue(available >= 0, "negative stock for " + productId + ": " + available);
+                if (againstInitialStock) {
+                    assertEquals(INITIAL_STOCK, available + held,
+                            "stock of " + productId + " not conserved: " + available + " available, " + held + " ordered");
+                }
+            }
+
+            Integer lowestCount = entityManager.createQuery("SELECT MIN(p.inventoryCount) FROM Product p", Integer.class)
+                    .getSingleResult();
+            Integer lowestShard = entityManager.createQuery("SELECT MIN(s.quantity) FROM ProductStockShard s", Integer.class)
+                    .getSingleResult();
+            assertTrue(lowestCount >= 0, "negative inventory_count: " + lowestCount);
+            assertTrue(lowestShard == null || lowestShard >= 0, "negative shard quantity: " + lowestShard);
+        });
+    }
+
+    private static Map<UUID, String> seedProducts(ProductService productService) {
+        Map<UUID, String> products = new HashMap<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Load Product " + i);
+            product.setDescription("Contended by the stock load test");
+            product.setPrice(BigDecimal.valueOf(5 + i));
+            product.setInventoryCount(INITIAL_STOCK);
+            Product saved = productService.createProduct(product);
+            products.put(saved.getProductId(), saved.getName());
+        }
+        return products;
+    }
+
+    private static Map<OrderLoadHarness.Operation, Integer> mix() {
+        Map<OrderLoadHarness.Operation, Integer> weights = new EnumMap<>(OrderLoadHarness.Operation.class);
+        for (String part : System.getProperty("load.mix", "create:50,update:30,delete:20,restock:2").split(",")) {
+            String[] weight = part.split(":");
+            weights.put(OrderLoadHarness.Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ordermanager.model.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    private final UuidV7 generator = new UuidV7();
+
+    @Test
+    void shouldSetVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(UuidV7.timestamp(uuid) >= before);
+        assertTrue(UuidV7.timestamp(uuid) <= System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void shouldIncreaseStrictlyWithinTheSameMillisecond() {
+        long now = System.currentTimeMillis();
+        UUID previous = generator.generate(now);
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.generate(now);
+            assertTrue(compareUnsigned(previous, next) < 0, () -> previous + " should sort before " + next);
+            assertEquals(previous.compareTo(next) < 0, compareUnsigned(previous, next) < 0);
+        }
+    }
+
+    @Test
+    void shouldBorrowTheNextMillisecondWhenTheCounterOverflows() {
+        long now = System.currentTimeMillis();
+        UUID last = null;
+        for (int i = 0; i < 5_000; i++) {
+            last = generator.generate(now);
+        }
+
+        assertTrue(UuidV7.timestamp(last) > now);
+    }
+
+    @Test
+    void shouldNotGoBackwardsWhenTheClockDoes() {
+        long now = System.currentTimeMillis();
+        UUID later = generator.generate(now);
+        UUID earlier = generator.generate(now - 1_000);
+
+        assertTrue(compareUnsigned(later, earlier) < 0);
+    }
+
+    @Test
+    void shouldStayUniqueAcrossThreads() throws Exception {
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 25_000; i++) {
+                        seen.add(UuidV7.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(100_000, seen.size());
+    }
+
+    @Test
+    void shouldRejectTimestampOfOtherVersions() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -1,21 +1,41 @@
 package com.ordermanager.service;
 
+import com.ordermanager.dto.OrderDetailDTO;
+import com.ordermanager.dto.OrderLineDTO;
+import com.ordermanager.dto.OrderPageDTO;
+import com.ordermanager.dto.OrderSummaryDTO;
 import com.ordermanager.model.Order;
 import com.ordermanager.model.OrderItem;
 import com.ordermanager.model.Product;
 import com.ordermanager.repository.OrderRepository;
 import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.service.catalog.ProductCatalog;
+import com.ordermanager.service.pricing.OrderPricing;
+import com.ordermanager.service.search.OrderSearchIndex;
+import com.ordermanager.service.search.OrderTimelineIndex;
+import com.ordermanager.service.search.TimeBucket;
+import com.ordermanager.service.stock.OptimisticStockEngine;
+import com.ordermanager.service.stock.StockMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import static java.util.Collections.emptyList;
@@ -30,14 +50,30 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private OrderSearchIndex searchIndex;
+
+    @Mock
+    private OrderTimelineIndex timelineIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private OrderService orderService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private Product existingProduct;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        StockMetrics stockMetrics = new StockMetrics(meterRegistry);
+        OrderPricing pricing = new OrderPricing("USD");
+        orderService = new OrderService(orderRepository, new ProductCatalog(productRepository, pricing, 100, 600), pricing,
+                new OptimisticStockEngine(productRepository, stockMetrics), stockMetrics,
+                searchIndex, timelineIndex, eventPublisher);
 
         existingProduct = new Product();
         existingProduct.setProductId(UUID.randomUUID());
@@ -48,48 +84,100 @@ class OrderServiceTest {
     }
 
     @Test
-    void shouldReturnAllOrders() {
-        Order order1 = new Order();
-        order1.setOrderItems(List.of(new OrderItem())); // Initialize orderItems
+    void shouldReturnFirstPageOfOrdersWithNextCursor() {
+        OrderSummaryDTO order1 = summaryCreatedAt(LocalDateTime.parse("2024-05-02T10:00:00"));
+        OrderSummaryDTO order2 = summaryCreatedAt(LocalDateTime.parse("2024-05-01T10:00:00"));
+        OrderSummaryDTO order3 = summaryCreatedAt(LocalDateTime.parse("2024-04-30T10:00:00"));
+
+        when(orderRepository.findFirstPageSummaries(Limit.of(3))).thenReturn(List.of(order1, order2, order3));
+
+        OrderPageDTO<OrderSummaryDTO> page = orderService.getOrdersPage(null, 2);
+
+        assertEquals(List.of(order1, order2), page.getOrders());
+        assertEquals(new OrderCursor(order2.getCreatedAt(), order2.getOrderId()).encode(), page.getNextCursor());
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldContinueFromCursor() {
+        OrderSummaryDTO order1 = summaryCreatedAt(LocalDateTime.parse("2024-05-02T10:00:00"));
+        OrderSummaryDTO order2 = summaryCreatedAt(LocalDateTime.parse("2024-05-01T10:00:00"));
+        String cursor = new OrderCursor(order1.getCreatedAt(), order1.getOrderId()).encode();
+
+        when(orderRepository.findPageSummariesBefore(order1.getOrderId(), Limit.of(3))).thenReturn(List.of(order2));
+
+        OrderPageDTO<OrderSummaryDTO> page = orderService.getOrdersPage(cursor, 2);
+
+        assertEquals(List.of(order2), page.getOrders());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldCapPageSize() {
+        when(orderRepository.findFirstPageSummaries(Limit.of(OrderService.MAX_PAGE_SIZE + 1))).thenReturn(emptyList());
+
+        OrderPageDTO<OrderSummaryDTO> page = orderService.getOrdersPage(null, 10_000);
 
-        Order order2 = new Order();
-        order2.setOrderItems(List.of(new OrderItem())); // Initialize orderItems
+        assertTrue(page.getOrders().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersPage("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersPage(null, 0));
+    }
 
-        when(orderRepository.findAll()).thenReturn(List.of(order1, order2));
+    @Test
+    void shouldReturnOrderDetailById() {
+        UUID orderId = UUID.randomUUID();
+        OrderRepository.OrderDetailRow first = detailRow(orderId, UUID.randomUUID(), "Widget", 2);
+        OrderRepository.OrderDetailRow second = detailRow(orderId, UUID.randomUUID(), "Gadget", 1);
+        when(orderRepository.findDetailRows(orderId)).thenReturn(List.of(first, second));
 
-        List<Order> orders = orderService.getAllOrders();
+        OrderDetailDTO result = orderService.getOrderById(orderId);
 
-        assertEquals(2, orders.size());
-        verify(orderRepository).findAll();
+        assertEquals(orderId, result.getOrderId());
+        assertEquals(List.of("Widget", "Gadget"), result.getOrderItems().stream().map(OrderLineDTO::getProductName).toList());
+        assertEquals(2, result.getOrderItems().get(0).getQuantity());
+        verify(orderRepository, never()).findById(any());
     }
 
     @Test
-    void shouldThrowExceptionWhenNoOrdersExist() {
-        when(orderRepository.findAll()).thenReturn(emptyList());
+    void shouldReturnOrderWithoutLines() {
+        UUID orderId = UUID.randomUUID();
+        OrderRepository.OrderDetailRow row = detailRow(orderId, null, null, null);
+        when(orderRepository.findDetailRows(orderId)).thenReturn(List.of(row));
 
-        assertThrows(EntityNotFoundException.class, () -> orderService.getAllOrders());
-        verify(orderRepository).findAll();
+        assertTrue(orderService.getOrderById(orderId).getOrderItems().isEmpty());
     }
 
     @Test
-    void shouldReturnOrderById() {
+    void shouldTagOrderFromVersionsWithoutLoadingIt() {
         UUID orderId = UUID.randomUUID();
-        Order order = new Order();
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        OrderRepository.OrderDetailVersion version = mock(OrderRepository.OrderDetailVersion.class);
+        when(version.getVersion()).thenReturn(3L);
+        when(version.getProductNameVersions()).thenReturn(12L);
+        when(orderRepository.findDetailVersion(orderId)).thenReturn(Optional.of(version));
 
-        Order result = orderService.getOrderById(orderId);
+        assertEquals("\"3.12\"", orderService.getOrderETag(orderId));
+        verify(orderRepository, never()).findDetailRows(any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenTaggingMissingOrder() {
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.findDetailVersion(orderId)).thenReturn(Optional.empty());
 
-        assertEquals(order, result);
-        verify(orderRepository).findById(orderId);
+        assertThrows(EntityNotFoundException.class, () -> orderService.getOrderETag(orderId));
     }
 
     @Test
     void shouldThrowExceptionWhenOrderNotFoundById() {
         UUID orderId = UUID.randomUUID();
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findDetailRows(orderId)).thenReturn(emptyList());
 
         assertThrows(EntityNotFoundException.class, () -> orderService.getOrderById(orderId));
-        verify(orderRepository).findById(orderId);
     }
 
     @Test
@@ -107,14 +195,67 @@ class OrderServiceTest {
         item.setQuantity(2);
         order.setOrderItems(List.of(item));
 
-        when(productRepository.findByName(productName)).thenReturn(Optional.of(product));
+        when(productRepository.findByNameIn(Set.of(productName))).thenReturn(List.of(product));
         when(orderRepository.save(order)).thenReturn(order);
 
         Order result = orderService.createOrder(order);
 
-        assertEquals(BigDecimal.valueOf(200), result.getTotalAmount());
+        assertEquals(new BigDecimal("200.00"), result.getTotalAmount());
         verify(productRepository).save(product);
         verify(orderRepository).save(order);
+
+        ArgumentCaptor<OrderChangedEvent> event = ArgumentCaptor.forClass(OrderChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ChangeType.CREATED, event.getValue().type());
+        assertEquals(product.getProductId(), event.getValue().after().lines().get(0).productId());
+    }
+
+    @Test
+    void shouldResolveAllProductsOfAnOrderInOneQuery() {
+        Product otherProduct = new Product();
+        otherProduct.setProductId(UUID.randomUUID());
+        otherProduct.setName("Other Product");
+        otherProduct.setPrice(BigDecimal.valueOf(10));
+        otherProduct.setInventoryCount(5);
+
+        Order order = new Order();
+        OrderItem first = new OrderItem();
+        first.setProductName(existingProduct.getName());
+        first.setQuantity(1);
+        OrderItem second = new OrderItem();
+        second.setProductName(otherProduct.getName());
+        second.setQuantity(2);
+        OrderItem third = new OrderItem();
+        third.setProductName(existingProduct.getName());
+        third.setQuantity(1);
+        order.setOrderItems(List.of(first, second, third));
+
+        when(productRepository.findByNameIn(Set.of(existingProduct.getName(), otherProduct.getName())))
+                .thenReturn(List.of(existingProduct, otherProduct));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        Order result = orderService.createOrder(order);
+
+        assertEquals(new BigDecimal("220.00"), result.getTotalAmount());
+        assertEquals(1, existingProduct.getInventoryCount());
+        assertEquals(3, otherProduct.getInventoryCount());
+        assertSame(order, first.getOrder());
+        verify(productRepository, times(1)).findByNameIn(any());
+        verify(productRepository, never()).findByName(any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCreatingOrderWithUnknownProduct() {
+        Order order = new Order();
+        OrderItem item = new OrderItem();
+        item.setProductName("Unknown Product");
+        item.setQuantity(1);
+        order.setOrderItems(List.of(item));
+
+        when(productRepository.findByNameIn(Set.of("Unknown Product"))).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> orderService.createOrder(order));
+        verify(orderRepository, never()).save(order);
     }
 
     @Test
@@ -132,11 +273,69 @@ class OrderServiceTest {
         item.setQuantity(2);
         order.setOrderItems(List.of(item));
 
-        when(productRepository.findByName(productName)).thenReturn(Optional.of(product));
+        when(productRepository.findByNameIn(Set.of(productName))).thenReturn(List.of(product));
 
         assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(order));
         verify(productRepository, never()).save(product);
         verify(orderRepository, never()).save(order);
+        assertEquals(1, meterRegistry.counter("order-manager.stock.rejections").count());
+    }
+
+    @Test
+    void shouldRejectOnlyTheOrderThatLacksStockInAGroup() {
+        Product otherProduct = new Product();
+        otherProduct.setProductId(UUID.randomUUID());
+        otherProduct.setName("Other Product");
+        otherProduct.setPrice(BigDecimal.valueOf(10));
+        otherProduct.setInventoryCount(1);
+
+        Order fits = new Order();
+        OrderItem fitsItem = new OrderItem();
+        fitsItem.setProductName(existingProduct.getName());
+        fitsItem.setQuantity(1);
+        fits.setOrderItems(List.of(fitsItem));
+
+        Order shortOfStock = new Order();
+        OrderItem takenItem = new OrderItem();
+        takenItem.setProductName(existingProduct.getName());
+        takenItem.setQuantity(1);
+        OrderItem missingItem = new OrderItem();
+        missingItem.setProductName(otherProduct.getName());
+        missingItem.setQuantity(2);
+        shortOfStock.setOrderItems(List.of(takenItem, missingItem));
+
+        when(productRepository.findByNameIn(Set.of(existingProduct.getName()))).thenReturn(List.of(existingProduct));
+        // the first order leaves existingProduct in the catalog, so the second only loads otherProduct
+        when(productRepository.getReferenceById(existingProduct.getProductId())).thenReturn(existingProduct);
+        when(productRepository.findByNameIn(Set.of(otherProduct.getName()))).thenReturn(List.of(otherProduct));
+        when(orderRepository.save(fits)).thenReturn(fits);
+
+        List<OrderService.Outcome> outcomes = orderService.createOrders(List.of(fits, shortOfStock));
+
+        assertFalse(outcomes.get(0).isRejected());
+        assertInstanceOf(IllegalArgumentException.class, outcomes.get(1).rejection());
+        // the rejected order hands back what it had already taken
+        assertEquals(2, existingProduct.getInventoryCount());
+        assertEquals(1, otherProduct.getInventoryCount());
+        verify(orderRepository).save(fits);
+        verify(orderRepository, never()).save(shortOfStock);
+    }
+
+    @Test
+    void shouldCountConflictWhenProductWasUpdatedConcurrently() {
+        Order order = new Order();
+        OrderItem item = new OrderItem();
+        item.setProductName(existingProduct.getName());
+        item.setQuantity(1);
+        order.setOrderItems(List.of(item));
+
+        when(productRepository.findByNameIn(Set.of(existingProduct.getName()))).thenReturn(List.of(existingProduct));
+        when(productRepository.save(existingProduct))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, existingProduct.getProductId()));
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(order));
+        assertEquals(1, meterRegistry.counter("order-manager.stock.conflicts").count());
+        verify(orderRepository, never()).save(order);
     }
 
     @Test
@@ -146,7 +345,7 @@ class OrderServiceTest {
         OrderItem existingItem = new OrderItem();
         existingItem.setProduct(existingProduct);
         existingItem.setQuantity(2);
-        existingOrder.setOrderItems(List.of(existingItem));
+        existingOrder.setOrderItems(new ArrayList<>(List.of(existingItem)));
 
         Order updatedOrder = new Order();
         OrderItem updatedItem = new OrderItem();
@@ -154,14 +353,16 @@ class OrderServiceTest {
         updatedItem.setQuantity(3);
         updatedOrder.setOrderItems(List.of(updatedItem));
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(existingProduct.getProductId())).thenReturn(Optional.of(existingProduct));
+        when(orderRepository.findForUpdate(orderId)).thenReturn(Optional.of(existingOrder));
+        when(productRepository.findAllById(Set.of(existingProduct.getProductId()))).thenReturn(List.of(existingProduct));
         when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
 
         Order result = orderService.updateOrder(orderId, updatedOrder);
 
-        assertEquals(BigDecimal.valueOf(300), result.getTotalAmount());
-        verify(productRepository, times(2)).save(existingProduct);
+        assertEquals(new BigDecimal("300.00"), result.getTotalAmount());
+        assertEquals(3, existingItem.getQuantity());
+        assertEquals(2, existingProduct.getInventoryCount());
+        verify(productRepository, times(1)).save(existingProduct);
         verify(orderRepository).save(existingOrder);
     }
 
@@ -172,7 +373,7 @@ class OrderServiceTest {
         OrderItem existingItem = new OrderItem();
         existingItem.setProduct(existingProduct);
         existingItem.setQuantity(2);
-        existingOrder.setOrderItems(List.of(existingItem));
+        existingOrder.setOrderItems(new ArrayList<>(List.of(existingItem)));
 
         Order updatedOrder = new Order();
         OrderItem updatedItem = new OrderItem();
@@ -180,14 +381,79 @@ class OrderServiceTest {
         updatedItem.setQuantity(15);
         updatedOrder.setOrderItems(List.of(updatedItem));
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(existingProduct.getProductId())).thenReturn(Optional.of(existingProduct));
+        when(orderRepository.findForUpdate(orderId)).thenReturn(Optional.of(existingOrder));
+        when(productRepository.findAllById(Set.of(existingProduct.getProductId()))).thenReturn(List.of(existingProduct));
 
         assertThrows(IllegalArgumentException.class, () -> orderService.updateOrder(orderId, updatedOrder));
-        verify(productRepository, times(1)).save(existingProduct);
+        verify(productRepository, never()).save(existingProduct);
         verify(orderRepository, never()).save(existingOrder);
     }
 
+    @Test
+    void shouldSkipInventoryWorkWhenItemsAreUnchanged() {
+        UUID orderId = UUID.randomUUID();
+        Order existingOrder = new Order();
+        OrderItem existingItem = new OrderItem();
+        existingItem.setProduct(existingProduct);
+        existingItem.setQuantity(2);
+        existingItem.setUnitPrice(BigDecimal.valueOf(100));
+        existingItem.setSubtotal(BigDecimal.valueOf(200));
+        existingOrder.setOrderItems(new ArrayList<>(List.of(existingItem)));
+
+        Order updatedOrder = new Order();
+        updatedOrder.setShippingAddress("New Address");
+        OrderItem updatedItem = new OrderItem();
+        updatedItem.setProduct(existingProduct);
+        updatedItem.setQuantity(2);
+        updatedOrder.setOrderItems(List.of(updatedItem));
+
+        when(orderRepository.findForUpdate(orderId)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+
+        Order result = orderService.updateOrder(orderId, updatedOrder);
+
+        assertEquals("New Address", result.getShippingAddress());
+        assertEquals(new BigDecimal("200.00"), result.getTotalAmount());
+        assertSame(existingItem, result.getOrderItems().get(0));
+        verify(productRepository, never()).findAllById(any());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldApplyOnlyNetDeltasWhenLinesAreAddedAndRemoved() {
+        Product otherProduct = new Product();
+        otherProduct.setProductId(UUID.randomUUID());
+        otherProduct.setName("Other Product");
+        otherProduct.setPrice(BigDecimal.valueOf(10));
+        otherProduct.setInventoryCount(5);
+
+        UUID orderId = UUID.randomUUID();
+        Order existingOrder = new Order();
+        OrderItem existingItem = new OrderItem();
+        existingItem.setProduct(existingProduct);
+        existingItem.setQuantity(2);
+        existingOrder.setOrderItems(new ArrayList<>(List.of(existingItem)));
+
+        Order updatedOrder = new Order();
+        OrderItem addedItem = new OrderItem();
+        addedItem.setProduct(otherProduct);
+        addedItem.setQuantity(4);
+        updatedOrder.setOrderItems(List.of(addedItem));
+
+        when(orderRepository.findForUpdate(orderId)).thenReturn(Optional.of(existingOrder));
+        when(productRepository.findAllById(new TreeSet<>(Set.of(existingProduct.getProductId(), otherProduct.getProductId()))))
+                .thenReturn(List.of(existingProduct, otherProduct));
+        when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+
+        Order result = orderService.updateOrder(orderId, updatedOrder);
+
+        assertEquals(1, result.getOrderItems().size());
+        assertEquals(otherProduct, result.getOrderItems().get(0).getProduct());
+        assertEquals(new BigDecimal("40.00"), result.getTotalAmount());
+        assertEquals(5, existingProduct.getInventoryCount());
+        assertEquals(1, otherProduct.getInventoryCount());
+    }
+
     @Test
     void shouldDeleteOrder() {
         UUID orderId = UUID.randomUUID();
@@ -200,8 +466,8 @@ class OrderServiceTest {
         item.setQuantity(2);
         order.setOrderItems(List.of(item));
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        when(productRepository.findById(product.getProductId())).thenReturn(Optional.of(product));
+        when(orderRepository.findForUpdate(orderId)).thenReturn(Optional.of(order));
+        when(productRepository.findAllById(Set.of(product.getProductId()))).thenReturn(List.of(product));
 
         orderService.deleteOrder(orderId);
 
@@ -212,7 +478,7 @@ class OrderServiceTest {
     @Test
     void shouldThrowExceptionWhenDeletingNonExistentOrder() {
         UUID orderId = UUID.randomUUID();
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findForUpdate(orderId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> orderService.deleteOrder(orderId));
         verify(orderRepository, never()).deleteById(orderId);
@@ -236,6 +502,21 @@ class OrderServiceTest {
         verify(orderRepository).findByProductNameAndDescription(name, description);
     }
 
+    @Test
+    void shouldSearchOrdersThroughIndexWhenReady() {
+        Order order = new Order();
+        order.setOrderId(UUID.randomUUID());
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("Test", null)).thenReturn(Set.of(order.getOrderId()));
+        when(orderRepository.findWithItemsByOrderIdIn(Set.of(order.getOrderId()))).thenReturn(List.of(order));
+
+        List<Order> result = orderService.searchOrdersByNameAndDescription("Test", null);
+
+        assertEquals(List.of(order), result);
+        verify(orderRepository, never()).findByProductNameAndDescription(any(), any());
+    }
+
     @Test
     void shouldThrowExceptionWhenNoOrdersFoundByNameAndDescription() {
         String name = "Nonexistent Product";
@@ -266,6 +547,46 @@ class OrderServiceTest {
         verify(orderRepository).findByDateRange(LocalDateTime.parse(startDate), LocalDateTime.parse(endDate));
     }
 
+    @Test
+    void shouldFilterOrdersByDateRangeThroughIndexWhenReady() {
+        LocalDateTime start = LocalDateTime.parse("2023-01-01T00:00:00");
+        LocalDateTime end = LocalDateTime.parse("2023-12-31T23:59:59");
+        Order order1 = orderCreatedAt(LocalDateTime.parse("2023-03-01T10:00:00"));
+        Order order2 = orderCreatedAt(LocalDateTime.parse("2023-04-01T10:00:00"));
+
+        when(timelineIndex.isReady()).thenReturn(true);
+        when(timelineIndex.page(start, end, null, 2)).thenReturn(List.of(
+                new OrderTimelineIndex.Entry(order1.getCreatedAt(), order1.getOrderId()),
+                new OrderTimelineIndex.Entry(order2.getCreatedAt(), order2.getOrderId())));
+        when(orderRepository.findWithItemsByOrderIdIn(List.of(order1.getOrderId()))).thenReturn(List.of(order1));
+
+        OrderPageDTO<Order> page = orderService.filterOrdersByDateRangePage(start.toString(), end.toString(), null, 1);
+
+        assertEquals(List.of(order1), page.getOrders());
+        assertNotNull(page.getNextCursor());
+        verify(orderRepository, never()).findByDateRange(any(), any());
+    }
+
+    @Test
+    void shouldCountOrdersPerBucketFromDatabaseWhenIndexIsNotReady() {
+        LocalDateTime start = LocalDateTime.parse("2023-01-01T00:00:00");
+        LocalDateTime end = LocalDateTime.parse("2023-01-02T23:59:59");
+
+        when(orderRepository.findCreatedAtInRange(start, end)).thenReturn(List.of(
+                LocalDateTime.parse("2023-01-01T10:00:00"), LocalDateTime.parse("2023-01-01T11:00:00"),
+                LocalDateTime.parse("2023-01-02T09:00:00")));
+
+        var counts = orderService.countOrdersByDateRange(start.toString(), end.toString(), TimeBucket.DAY);
+
+        assertEquals(2L, counts.get(LocalDateTime.parse("2023-01-01T00:00:00")));
+        assertEquals(1L, counts.get(LocalDateTime.parse("2023-01-02T00:00:00")));
+    }
+
+    @Test
+    void shouldRejectMalformedDates() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.filterOrdersByDateRange("yesterday", "today"));
+    }
+
     @Test
     void shouldThrowExceptionWhenNoOrdersFoundInDateRange() {
         String startDate = "2023-01-01T00:00:00";
@@ -277,4 +598,28 @@ class OrderServiceTest {
         assertThrows(EntityNotFoundException.class, () -> orderService.filterOrdersByDateRange(startDate, endDate));
         verify(orderRepository).findByDateRange(LocalDateTime.parse(startDate), LocalDateTime.parse(endDate));
     }
+
+    private static OrderSummaryDTO summaryCreatedAt(LocalDateTime createdAt) {
+        return new OrderSummaryDTO(UUID.randomUUID(), "PENDING", BigDecimal.TEN, "card", createdAt, 1);
+    }
+
+    private static OrderRepository.OrderDetailRow detailRow(UUID orderId, UUID orderItemId, String productName,
+                                                            Integer quantity) {
+        OrderRepository.OrderDetailRow row = mock(OrderRepository.OrderDetailRow.class);
+        when(row.getOrderId()).thenReturn(orderId);
+        when(row.getOrderItemId()).thenReturn(orderItemId);
+        when(row.getProductName()).thenReturn(productName);
+        when(row.getQuantity()).thenReturn(quantity);
+        return row;
+    }
+
+    private Order orderCreatedAt(LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setOrderId(UUID.randomUUID());
+        order.setCreatedAt(createdAt);
+        OrderItem item = new OrderItem();
+        item.setProduct(existingProduct);
+        order.setOrderItems(List.of(item));
+        return order;
+    }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.ordermanager.service;
 
+import com.ordermanager.dto.ProductCardDTO;
+import com.ordermanager.event.ProductChangedEvent;
 import com.ordermanager.model.Product;
 import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.stock.StockEngine;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +14,7 @@ import org.mockito.Mock;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +26,12 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -37,6 +47,9 @@ class ProductServiceTest {
         product.setCategory("Test Category");
         product.setPrice(BigDecimal.valueOf(99.99));
         product.setInventoryCount(10);
+
+        when(stockEngine.availableStock(any(Product.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0, Product.class).getInventoryCount());
     }
 
     @Test
@@ -81,6 +94,20 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(product.getProductId());
     }
 
+    @Test
+    void testGetProductById_reportsStockFromEngine() {
+        when(productRepository.findById(product.getProductId()))
+                .thenReturn(Optional.of(product));
+        when(stockEngine.availableStock(product)).thenReturn(42);
+
+        Optional<Product> result = productService.getProductById(product.getProductId());
+
+        assertTrue(result.isPresent());
+        assertEquals(42, result.get().getInventoryCount());
+        assertNotSame(product, result.get());
+        assertEquals(10, product.getInventoryCount());
+    }
+
     @Test
     void testGetProductById_notFound() {
         UUID fakeId = UUID.randomUUID();
@@ -92,6 +119,24 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(fakeId);
     }
 
+    @Test
+    void testGetProductCards_filtersByCategory() {
+        ProductCardDTO card = new ProductCardDTO(product.getProductId(), "Test Product", null, product.getPrice(),
+                "Test Category", 0);
+        when(productRepository.findCardsByCategory("Test Category")).thenReturn(List.of(card));
+
+        assertEquals(List.of(card), productService.getProductCards("Test Category"));
+        verify(productRepository, never()).findAllCards();
+    }
+
+    @Test
+    void testGetProductCard_notFound() {
+        UUID fakeId = UUID.randomUUID();
+        when(productRepository.findCardById(fakeId)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> productService.getProductCard(fakeId));
+    }
+
     @Test
     void testCreateProduct() {
         when(productRepository.save(any(Product.class))).thenReturn(product);
@@ -140,6 +185,7 @@ class ProductServiceTest {
         assertEquals(BigDecimal.valueOf(60.00), capturedProduct.getPrice());
         assertEquals(15, capturedProduct.getInventoryCount());
         verify(productRepository).findById(existingProduct.getProductId());
+        verify(stockEngine).onStockOverwritten(existingProduct);
     }
 
     @Test
@@ -174,6 +220,7 @@ class ProductServiceTest {
         productService.deleteProduct(productId);
 
         verify(productRepository).deleteById(productId);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.deleted(productId));
     }
 
     @Test
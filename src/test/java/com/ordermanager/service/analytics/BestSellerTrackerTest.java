@@ -0,0 +1,208 @@
+package com.ordermanager.service.analytics;
+
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.pricing.OrderPricing;
+import com.ordermanager.service.stock.StockEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class BestSellerTrackerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-14T10:00:00Z"));
+
+    private BestSellerTracker tracker;
+
+    private final UUID cheap = UUID.randomUUID();
+    private final UUID pricey = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tracker = new BestSellerTracker(productRepository, stockEngine, new OrderPricing("USD"), clock, 60, 12, 10, 4, 1024);
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void shouldRankByUnitsAndByRevenueSeparately() {
+        created(cheap, 10, "10.00");
+        created(pricey, 2, "200.00");
+
+        BestSellerTracker.TopSellers byUnits = tracker.topSellers(BestSellerTracker.Ranking.UNITS, 2);
+        BestSellerTracker.TopSellers byRevenue = tracker.topSellers(BestSellerTracker.Ranking.REVENUE, 2);
+
+        assertEquals(cheap, byUnits.products().get(0).productId());
+        assertEquals(10, byUnits.products().get(0).units());
+        assertEquals(pricey, byRevenue.products().get(0).productId());
+        assertEquals(0, new BigDecimal("200.00").compareTo(byRevenue.products().get(0).revenue()));
+        assertEquals(12, byUnits.totalUnits());
+        assertEquals(0, new BigDecimal("210.00").compareTo(byUnits.totalRevenue()));
+    }
+
+    @Test
+    void shouldKeepRevenueInTheMinorUnitsOfTheConfiguredCurrency() {
+        tracker = new BestSellerTracker(productRepository, stockEngine, new OrderPricing("KWD"), clock, 60, 12, 10, 4, 1024);
+        created(cheap, 1, "1.234");
+        created(pricey, 1, "0.005");
+
+        BestSellerTracker.TopSellers top = tracker.topSellers(BestSellerTracker.Ranking.REVENUE, 2);
+
+        assertEquals(new BigDecimal("1.234"), top.products().get(0).revenue());
+        assertEquals(new BigDecimal("0.005"), top.products().get(1).revenue());
+        assertEquals(new BigDecimal("1.239"), top.totalRevenue());
+    }
+
+    @Test
+    void shouldApplyUpdatesAndDeletesToTheSaleTheyChange() {
+        LocalDateTime createdAt = now();
+        OrderSnapshot original = order(createdAt, cheap, 10, "10.00");
+        tracker.onOrderChanged(OrderChangedEvent.created(original));
+        created(pricey, 4, "40.00");
+
+        tracker.onOrderChanged(OrderChangedEvent.updated(original, order(createdAt, cheap, 3, "3.00")));
+        assertEquals(pricey, tracker.topSellers(BestSellerTracker.Ranking.UNITS, 1).products().get(0).productId());
+
+        tracker.onOrderChanged(OrderChangedEvent.deleted(order(createdAt, cheap, 3, "3.00")));
+        BestSellerTracker.TopSellers top = tracker.topSellers(BestSellerTracker.Ranking.UNITS, 10);
+        assertEquals(1, top.products().size());
+        assertEquals(4, top.totalUnits());
+    }
+
+    @Test
+    void shouldForgetSalesOnceTheyLeaveTheWindow() {
+        created(cheap, 5, "5.00");
+        clock.advance(Duration.ofMinutes(30));
+        created(pricey, 1, "1.00");
+
+        clock.advance(Duration.ofMinutes(35));
+
+        BestSellerTracker.TopSellers top = tracker.topSellers(BestSellerTracker.Ranking.UNITS, 10);
+        assertEquals(1, top.products().size());
+        assertEquals(pricey, top.products().get(0).productId());
+        assertEquals(1, top.totalUnits());
+    }
+
+    @Test
+    void shouldIgnoreChangesToOrdersOlderThanTheWindow() {
+        OrderSnapshot old = order(now().minusHours(2), cheap, 5, "5.00");
+
+        tracker.onOrderChanged(OrderChangedEvent.created(old));
+        tracker.onOrderChanged(OrderChangedEvent.deleted(old));
+
+        assertTrue(tracker.topSellers(BestSellerTracker.Ranking.UNITS, 10).products().isEmpty());
+    }
+
+    @Test
+    void shouldFindTheHeavyHittersAmongManyProducts() {
+        List<UUID> hot = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        for (int i = 0; i < 5_000; i++) {
+            created(UUID.randomUUID(), 1, "1.00");
+            if (i % 50 == 0) {
+                for (int h = 0; h < hot.size(); h++) {
+                    created(hot.get(h), 10 * (h + 1), "1.00");
+                }
+            }
+        }
+
+        List<BestSellerTracker.TopProduct> top = tracker.topSellers(BestSellerTracker.Ranking.UNITS, 3).products();
+
+        assertEquals(List.of(hot.get(2), hot.get(1), hot.get(0)), top.stream().map(BestSellerTracker.TopProduct::productId).toList());
+        assertTrue(top.get(0).units() >= 3_000);
+    }
+
+    @Test
+    void shouldRankStockOutRisksByHoursLeft() {
+        created(cheap, 10, "10.00");
+        created(pricey, 2, "200.00");
+        Product cheapProduct = product(cheap, "Cheap");
+        Product priceyProduct = product(pricey, "Pricey");
+        when(productRepository.findAllById(any())).thenReturn(List.of(cheapProduct, priceyProduct));
+        when(stockEngine.availableStock(cheapProduct)).thenReturn(100);
+        when(stockEngine.availableStock(priceyProduct)).thenReturn(1);
+
+        List<BestSellerTracker.StockOutRisk> risks = tracker.stockOutRisks(10);
+
+        assertEquals(pricey, risks.get(0).productId());
+        assertEquals(0.5, risks.get(0).hoursToStockOut(), 1e-9);
+        assertEquals(10.0, risks.get(1).hoursToStockOut(), 1e-9);
+    }
+
+    @Test
+    void shouldRejectLimitsBeyondTheTrackedCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> tracker.topSellers(BestSellerTracker.Ranking.UNITS, 11));
+        assertThrows(IllegalArgumentException.class, () -> tracker.stockOutRisks(0));
+    }
+
+    private void created(UUID productId, int quantity, String subtotal) {
+        tracker.onOrderChanged(OrderChangedEvent.created(order(now(), productId, quantity, subtotal)));
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC);
+    }
+
+    private static OrderSnapshot order(LocalDateTime createdAt, UUID productId, int quantity, String subtotal) {
+        List<OrderSnapshot.Line> lines = new ArrayList<>();
+        lines.add(new OrderSnapshot.Line(productId, quantity, new BigDecimal(subtotal)));
+        return new OrderSnapshot(UUID.randomUUID(), createdAt, "NEW", "card", new BigDecimal(subtotal), lines);
+    }
+
+    private static Product product(UUID productId, String name) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setName(name);
+        return product;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ordermanager.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void shouldNeverUndercount() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            UUID key = UUID.randomUUID();
+            keys.add(key);
+            sketch.add(key, i % 7 + 1);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(sketch.estimate(keys.get(i)) >= i % 7 + 1);
+        }
+    }
+
+    @Test
+    void shouldCountExactlyWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        UUID key = UUID.randomUUID();
+
+        sketch.add(key, 5);
+        sketch.add(key, -2);
+
+        assertEquals(3, sketch.estimate(key));
+        assertEquals(0, sketch.estimate(UUID.randomUUID()));
+    }
+
+    @Test
+    void shouldRejectWidthsThatAreNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 1000));
+    }
+}
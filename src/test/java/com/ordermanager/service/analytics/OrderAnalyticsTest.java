@@ -0,0 +1,288 @@
+package com.ordermanager.service.analytics;
+
+import com.ordermanager.dto.DailyOrderAggregateDTO;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.model.DailyOrderAggregate;
+import com.ordermanager.model.OrderAggregateDelta;
+import com.ordermanager.repository.DailyOrderAggregateRepository;
+import com.ordermanager.repository.OrderAggregateDeltaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class OrderAnalyticsTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 14, 10, 30);
+    private static final LocalDate DAY = CREATED_AT.toLocalDate();
+
+    @Mock
+    private OrderAggregateDeltaRepository deltaRepository;
+
+    @Mock
+    private DailyOrderAggregateRepository aggregateRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderAnalytics orderAnalytics;
+
+    private final UUID productA = UUID.randomUUID();
+    private final UUID productB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderAnalytics = new OrderAnalytics(deltaRepository, aggregateRepository, transactionManager);
+    }
+
+    @Test
+    void shouldWriteAnOrderCountAndOneDeltaPerProductForANewOrder() {
+        OrderSnapshot order = snapshot("NEW", List.of(
+                new OrderSnapshot.Line(productA, 2, new BigDecimal("20.00")),
+                new OrderSnapshot.Line(productB, 1, new BigDecimal("5.00"))));
+
+        orderAnalytics.onOrderChanged(OrderChangedEvent.created(order));
+
+        List<OrderAggregateDelta> deltas = savedDeltas();
+        assertEquals(3, deltas.size());
+        OrderAggregateDelta deltaA = deltas.stream().filter(d -> productA.equals(d.getProductId())).findFirst().orElseThrow();
+        assertEquals(DAY, deltaA.getOrderDate());
+        assertEquals("NEW", deltaA.getStatus());
+        assertEquals("card", deltaA.getPaymentMethod());
+        assertEquals(0, deltaA.getOrderCount());
+        assertEquals(0, new BigDecimal("20.00").compareTo(deltaA.getRevenue()));
+        assertEquals(2, deltaA.getUnitsSold());
+        OrderAggregateDelta orders = deltas.stream().filter(d -> d.getProductId() == null).findFirst().orElseThrow();
+        assertEquals(1, orders.getOrderCount());
+        assertEquals(0, orders.getRevenue().signum());
+        assertEquals(0, orders.getUnitsSold());
+    }
+
+    @Test
+    void shouldCountATwoProductOrderOnceInTheDayTotal() {
+        OrderSnapshot order = snapshot("NEW", List.of(
+                new OrderSnapshot.Line(productA, 2, new BigDecimal("20.00")),
+                new OrderSnapshot.Line(productB, 1, new BigDecimal("5.00"))));
+        orderAnalytics.onOrderChanged(OrderChangedEvent.created(order));
+        List<OrderAggregateDeltaRepository.BucketTotals> pending = savedDeltas().stream()
+                .map(d -> totals(d.getProductId(), d.getStatus(), d.getOrderCount(), d.getRevenue().toPlainString(), d.getUnitsSold()))
+                .toList();
+        when(deltaRepository.sumPendingBetween(DAY, DAY)).thenReturn(pending);
+
+        List<DailyOrderAggregateDTO> buckets = orderAnalytics.daily(DAY, DAY, null, null, null);
+
+        assertEquals(1, buckets.stream().mapToLong(DailyOrderAggregateDTO::getOrderCount).sum());
+        assertNull(buckets.get(0).getProductId());
+        assertEquals(1, buckets.get(0).getOrderCount());
+    }
+
+    @Test
+    void shouldCountAnOrderWithoutLines() {
+        orderAnalytics.onOrderChanged(OrderChangedEvent.created(snapshot("NEW", List.of())));
+
+        List<OrderAggregateDelta> deltas = savedDeltas();
+        assertEquals(1, deltas.size());
+        assertNull(deltas.get(0).getProductId());
+        assertEquals(1, deltas.get(0).getOrderCount());
+    }
+
+    @Test
+    void shouldWriteNothingWhenAnUpdateLeavesTheBucketsAlone() {
+        List<OrderSnapshot.Line> lines = List.of(new OrderSnapshot.Line(productA, 2, new BigDecimal("20.00")));
+
+        orderAnalytics.onOrderChanged(OrderChangedEvent.updated(snapshot("NEW", lines), snapshot("NEW", lines)));
+
+        verify(deltaRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldMoveTheOrderBetweenBucketsWhenItsStatusChanges() {
+        List<OrderSnapshot.Line> lines = List.of(new OrderSnapshot.Line(productA, 2, new BigDecimal("20.00")));
+
+        orderAnalytics.onOrderChanged(OrderChangedEvent.updated(snapshot("NEW", lines), snapshot("SHIPPED", lines)));
+
+        List<OrderAggregateDelta> deltas = savedDeltas();
+        assertEquals(4, deltas.size());
+        deltas.sort(Comparator.comparing(OrderAggregateDelta::getStatus)
+                .thenComparing(OrderAggregateDelta::getProductId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        assertEquals("NEW", deltas.get(0).getStatus());
+        assertEquals(-1, deltas.get(0).getOrderCount());
+        assertEquals(-2, deltas.get(1).getUnitsSold());
+        assertEquals("SHIPPED", deltas.get(2).getStatus());
+        assertEquals(1, deltas.get(2).getOrderCount());
+        assertEquals(2, deltas.get(3).getUnitsSold());
+    }
+
+    @Test
+    void shouldOnlyRecordTheNetChangeOfAnUpdatedLine() {
+        OrderSnapshot before = snapshot("NEW", List.of(new OrderSnapshot.Line(productA, 2, new BigDecimal("20.00"))));
+        OrderSnapshot after = snapshot("NEW", List.of(new OrderSnapshot.Line(productA, 5, new BigDecimal("50.00"))));
+
+        orderAnalytics.onOrderChanged(OrderChangedEvent.updated(before, after));
+
+        List<OrderAggregateDelta> deltas = savedDeltas();
+        assertEquals(1, deltas.size());
+        assertEquals(0, deltas.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("30.00").compareTo(deltas.get(0).getRevenue()));
+        assertEquals(3, deltas.get(0).getUnitsSold());
+    }
+
+    @Test
+    void shouldAddPendingDeltasToTheFoldedBuckets() {
+        DailyOrderAggregate folded = new DailyOrderAggregate(DAY, "NEW", "card", productA);
+        folded.add(0, new BigDecimal("30.00"), 6);
+        DailyOrderAggregate foldedOrders = new DailyOrderAggregate(DAY, "NEW", "card", null);
+        foldedOrders.add(3, BigDecimal.ZERO, 0);
+        when(aggregateRepository.findByOrderDateBetween(DAY, DAY)).thenReturn(List.of(folded, foldedOrders));
+        when(deltaRepository.sumPendingBetween(DAY, DAY)).thenReturn(List.of(
+                totals(null, "NEW", 1, "0", 0),
+                totals(productA, "NEW", 0, "10.00", 2),
+                totals(productB, "NEW", 0, "4.00", 1)));
+
+        List<DailyOrderAggregateDTO> buckets = orderAnalytics.daily(DAY, DAY, null, null, null);
+
+        assertEquals(3, buckets.size());
+        assertNull(buckets.get(0).getProductId());
+        assertEquals(4, buckets.get(0).getOrderCount());
+        DailyOrderAggregateDTO bucketA = buckets.stream().filter(b -> productA.equals(b.getProductId())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("40.00").compareTo(bucketA.getRevenue()));
+        assertEquals(8, bucketA.getUnitsSold());
+    }
+
+    @Test
+    void shouldFilterBucketsAndDropEmptyOnes() {
+        DailyOrderAggregate emptied = new DailyOrderAggregate(DAY, "NEW", "card", productA);
+        emptied.add(1, new BigDecimal("10.00"), 2);
+        when(aggregateRepository.findByOrderDateBetween(DAY, DAY)).thenReturn(List.of(emptied));
+        when(deltaRepository.sumPendingBetween(DAY, DAY)).thenReturn(List.of(
+                totals(productA, "NEW", -1, "-10.00", -2),
+                totals(productB, "SHIPPED", 1, "4.00", 1)));
+
+        assertEquals(1, orderAnalytics.daily(DAY, DAY, null, null, null).size());
+        assertTrue(orderAnalytics.daily(DAY, DAY, "NEW", null, null).isEmpty());
+        assertEquals(1, orderAnalytics.daily(DAY, DAY, null, "card", productB).size());
+    }
+
+    @Test
+    void shouldRejectAnInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> orderAnalytics.daily(DAY, DAY.minusDays(1), null, null, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFoldClaimedDeltasIntoExistingAndNewBuckets() {
+        DailyOrderAggregate existing = new DailyOrderAggregate(DAY, "NEW", "card", productA);
+        existing.add(3, new BigDecimal("30.00"), 6);
+        when(deltaRepository.claimUnfolded(any())).thenReturn(3);
+        when(deltaRepository.sumByFoldBatch(any())).thenReturn(List.of(
+                totals(productA, "NEW", 1, "10.00", 2),
+                totals(productB, "NEW", 1, "4.00", 1)));
+        when(aggregateRepository.findByOrderDateIn(anyCollection())).thenReturn(List.of(existing));
+
+        orderAnalytics.fold();
+
+        ArgumentCaptor<Iterable<DailyOrderAggregate>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(aggregateRepository).saveAll(saved.capture());
+        List<DailyOrderAggregate> aggregates = new ArrayList<>();
+        saved.getValue().forEach(aggregates::add);
+        assertEquals(2, aggregates.size());
+        assertEquals(4, existing.getOrderCount());
+        assertEquals(8, existing.getUnitsSold());
+        verify(deltaRepository).deleteByFoldBatch(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRebuildOrderCountsApartFromProductTotals() {
+        OrderAggregateDeltaRepository.OrderCounts counts = mock(OrderAggregateDeltaRepository.OrderCounts.class);
+        when(counts.getOrderDate()).thenReturn(DAY);
+        when(counts.getStatus()).thenReturn("NEW");
+        when(counts.getPaymentMethod()).thenReturn("card");
+        when(counts.getOrderCount()).thenReturn(2L);
+        when(deltaRepository.countFromOrders()).thenReturn(List.of(counts));
+        when(deltaRepository.sumFromOrderLines()).thenReturn(List.of(totals(productA, "NEW", 0, "30.00", 3)));
+
+        assertEquals(2, orderAnalytics.rebuild());
+
+        ArgumentCaptor<Iterable<DailyOrderAggregate>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(aggregateRepository).saveAll(saved.capture());
+        List<DailyOrderAggregate> aggregates = new ArrayList<>();
+        saved.getValue().forEach(aggregates::add);
+        assertNull(aggregates.get(0).getProductId());
+        assertEquals(2, aggregates.get(0).getOrderCount());
+        assertEquals(productA, aggregates.get(1).getProductId());
+        assertEquals(0, aggregates.get(1).getOrderCount());
+        assertEquals(3, aggregates.get(1).getUnitsSold());
+    }
+
+    @Test
+    void shouldSkipFoldWhenNothingIsPending() {
+        when(deltaRepository.claimUnfolded(any())).thenReturn(0);
+
+        orderAnalytics.fold();
+
+        verify(deltaRepository, never()).sumByFoldBatch(any());
+        verify(aggregateRepository, never()).saveAll(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OrderAggregateDelta> savedDeltas() {
+        ArgumentCaptor<List<OrderAggregateDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(deltaRepository).saveAll(captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    private OrderSnapshot snapshot(String status, List<OrderSnapshot.Line> lines) {
+        return new OrderSnapshot(UUID.randomUUID(), CREATED_AT, status, "card", BigDecimal.ZERO, lines);
+    }
+
+    private static OrderAggregateDeltaRepository.BucketTotals totals(UUID productId, String status, long orderCount,
+                                                                     String revenue, long unitsSold) {
+        return new OrderAggregateDeltaRepository.BucketTotals() {
+            public LocalDate getOrderDate() {
+                return DAY;
+            }
+
+            public String getStatus() {
+                return status;
+            }
+
+            public String getPaymentMethod() {
+                return "card";
+            }
+
+            public UUID getProductId() {
+                return productId;
+            }
+
+            public long getOrderCount() {
+                return orderCount;
+            }
+
+            public BigDecimal getRevenue() {
+                return new BigDecimal(revenue);
+            }
+
+            public long getUnitsSold() {
+                return unitsSold;
+            }
+        };
+    }
+}
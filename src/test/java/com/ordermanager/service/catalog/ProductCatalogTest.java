@@ -0,0 +1,154 @@
+package com.ordermanager.service.catalog;
+
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.ProductChangedEvent;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.service.pricing.OrderPricing;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCatalogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCatalog productCatalog;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productCatalog = new ProductCatalog(productRepository, new OrderPricing("USD"), 100, 600);
+
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName("Widget");
+        product.setCategory("Tools");
+        product.setPrice(BigDecimal.valueOf(25));
+        product.setInventoryCount(7);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        Product reference = new Product();
+        when(productRepository.findByNameIn(Set.of("Widget"))).thenReturn(List.of(product));
+        when(productRepository.getReferenceById(product.getProductId())).thenReturn(reference);
+
+        ProductCatalog.Resolved first = productCatalog.findByNames(List.of("Widget")).get("Widget");
+        ProductCatalog.Resolved second = productCatalog.findByNames(List.of("Widget")).get("Widget");
+        ProductCatalog.Resolved byId = productCatalog.findByIds(List.of(product.getProductId())).get(product.getProductId());
+
+        assertSame(product, first.product());
+        assertSame(reference, second.product());
+        assertSame(reference, byId.product());
+        assertEquals(BigDecimal.valueOf(25), second.price());
+        verify(productRepository, times(1)).findByNameIn(any());
+        verify(productRepository, never()).findAllById(any());
+
+        assertEquals(1, productCatalog.byNameStats().hits());
+        assertEquals(1, productCatalog.byNameStats().misses());
+        assertEquals(1, productCatalog.byIdStats().size());
+    }
+
+    @Test
+    void shouldReloadAfterProductUpdateCommits() {
+        when(productRepository.findAllById(Set.of(product.getProductId()))).thenReturn(List.of(product));
+        productCatalog.findByIds(List.of(product.getProductId()));
+
+        product.setPrice(BigDecimal.valueOf(30));
+        productCatalog.onProductChanged(ProductChangedEvent.of(ChangeType.UPDATED, product));
+
+        Map<UUID, ProductCatalog.Resolved> products = productCatalog.findByIds(List.of(product.getProductId()));
+
+        assertEquals(BigDecimal.valueOf(30), products.get(product.getProductId()).price());
+        verify(productRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    void shouldForgetNameOfDeletedProduct() {
+        when(productRepository.findByNameIn(Set.of("Widget"))).thenReturn(List.of(product));
+        productCatalog.findByNames(List.of("Widget"));
+
+        productCatalog.onProductChanged(ProductChangedEvent.deleted(product.getProductId()));
+        when(productRepository.findByNameIn(Set.of("Widget"))).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> productCatalog.findByNames(List.of("Widget")));
+        assertEquals(0, productCatalog.byIdStats().size());
+    }
+
+    @Test
+    void shouldNotCacheLoadThatRacedWithAnUpdate() {
+        when(productRepository.findAllById(Set.of(product.getProductId()))).thenAnswer(invocation -> {
+            // the update commits while the stale row is on its way back
+            productCatalog.onProductChanged(ProductChangedEvent.of(ChangeType.UPDATED, product));
+            return List.of(product);
+        });
+
+        productCatalog.findByIds(List.of(product.getProductId()));
+
+        assertEquals(0, productCatalog.byIdStats().size());
+    }
+
+    @Test
+    void shouldReplaceEntryWhoseVersionNoLongerMatchesTheLoadedRow() {
+        Product changed = mock(Product.class);
+        when(changed.getProductId()).thenReturn(product.getProductId());
+        when(changed.getName()).thenReturn("Widget");
+        when(changed.getPrice()).thenReturn(BigDecimal.valueOf(30));
+        when(changed.getVersion()).thenReturn(1);
+        when(productRepository.findAllById(Set.of(product.getProductId()))).thenReturn(List.of(product));
+        when(productRepository.getReferenceById(product.getProductId())).thenReturn(changed);
+        productCatalog.findByIds(List.of(product.getProductId()));
+
+        // changed behind the catalog's back, e.g. by another instance
+        ProductCatalog.Resolved stale = productCatalog.findByIds(List.of(product.getProductId())).get(product.getProductId());
+        ProductCatalog.Resolved revalidated = productCatalog.revalidate(stale);
+
+        assertEquals(BigDecimal.valueOf(25), stale.price());
+        assertEquals(BigDecimal.valueOf(30), revalidated.price());
+        assertEquals(1, revalidated.entry().version());
+        assertEquals(BigDecimal.valueOf(30),
+                productCatalog.findByIds(List.of(product.getProductId())).get(product.getProductId()).price());
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void shouldKeepEntryWhoseVersionMatchesTheLoadedRow() {
+        when(productRepository.findAllById(Set.of(product.getProductId()))).thenReturn(List.of(product));
+        ProductCatalog.Resolved loaded = productCatalog.findByIds(List.of(product.getProductId())).get(product.getProductId());
+
+        assertSame(loaded, productCatalog.revalidate(loaded));
+    }
+
+    @Test
+    void shouldRejectPriceWithMoreDecimalPlacesThanTheCurrency() {
+        ProductCatalog yenCatalog = new ProductCatalog(productRepository, new OrderPricing("JPY"), 100, 600);
+        product.setPrice(new BigDecimal("19.99"));
+        when(productRepository.findAllById(Set.of(product.getProductId()))).thenReturn(List.of(product));
+
+        assertThrows(IllegalArgumentException.class, () -> yenCatalog.findByIds(List.of(product.getProductId())));
+        assertEquals(0, yenCatalog.byIdStats().size());
+    }
+
+    @Test
+    void shouldThrowForUnknownProductId() {
+        UUID unknownId = UUID.randomUUID();
+        when(productRepository.findAllById(Set.of(unknownId))).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> productCatalog.findByIds(List.of(unknownId)));
+    }
+}
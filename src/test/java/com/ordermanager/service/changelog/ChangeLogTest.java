@@ -0,0 +1,151 @@
+package com.ordermanager.service.changelog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    private final List<ChangeLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeLogs() throws IOException {
+        for (ChangeLog log : opened) {
+            log.close();
+        }
+    }
+
+    @Test
+    void readsRecordsBackFromAnyOffset() throws IOException {
+        ChangeLog log = open(16);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, log.append(payload(i)));
+        }
+
+        assertEquals(List.of(0L, 1L, 2L), offsets(log.read(0, 3)));
+        assertEquals(List.of(150L, 151L), offsets(log.read(150, 2)));
+        assertEquals("record-199", text(log.read(199, 10).get(0)));
+        assertTrue(log.read(200, 10).isEmpty());
+        assertEquals(200, log.endOffset());
+    }
+
+    @Test
+    void rollsSegmentsAndDropsTheOldestBeyondRetention() throws IOException {
+        ChangeLog log = open(3);
+        for (int i = 0; i < 500; i++) {
+            log.append(payload(i));
+        }
+
+        assertEquals(3, segmentFiles());
+        long start = log.startOffset();
+        assertTrue(start > 0);
+        // a reader that fell behind continues at the oldest retained record
+        assertEquals(start, log.read(0, 1).get(0).offset());
+        assertEquals(500 - start, log.read(0, 1000).size());
+    }
+
+    @Test
+    void continuesAfterTheLastRecordWhenReopened() throws IOException {
+        ChangeLog log = open(16);
+        for (int i = 0; i < 100; i++) {
+            log.append(payload(i));
+        }
+        log.flush();
+        close(log);
+
+        ChangeLog reopened = open(16);
+        assertEquals(100, reopened.endOffset());
+        assertEquals(100, reopened.append(payload(100)));
+        assertEquals("record-100", text(reopened.read(100, 1).get(0)));
+        assertEquals(101, reopened.read(0, 1000).size());
+    }
+
+    @Test
+    void discardsATornRecordOnRecovery() throws IOException {
+        ChangeLog log = open(16);
+        log.append(payload(0));
+        log.append(payload(1));
+        log.flush();
+        close(log);
+
+        // flip a payload byte of the second record, as if the write was cut short
+        Path segment = onlySegment();
+        int secondRecord = ChangeLog.HEADER_BYTES + payload(0).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondRecord + ChangeLog.HEADER_BYTES);
+        }
+
+        ChangeLog reopened = open(16);
+        assertEquals(1, reopened.endOffset());
+        assertEquals(List.of(0L), offsets(reopened.read(0, 10)));
+        assertEquals(1, reopened.append(payload(7)));
+        assertEquals("record-7", text(reopened.read(1, 1).get(0)));
+    }
+
+    @Test
+    void refusesADirectoryAlreadyInUse() throws IOException {
+        open(16);
+
+        assertThrows(IllegalStateException.class, () -> new ChangeLog(directory.toString(), SEGMENT_BYTES, 16));
+    }
+
+    @Test
+    void rejectsRecordsLargerThanASegment() throws IOException {
+        ChangeLog log = open(16);
+
+        assertThrows(IllegalArgumentException.class, () -> log.append(new byte[SEGMENT_BYTES]));
+    }
+
+    private ChangeLog open(int retainedSegments) throws IOException {
+        ChangeLog log = new ChangeLog(directory.toString(), SEGMENT_BYTES, retainedSegments);
+        opened.add(log);
+        return log;
+    }
+
+    private void close(ChangeLog log) throws IOException {
+        log.close();
+        opened.remove(log);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("record-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ChangeLog.Entry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+
+    private static List<Long> offsets(List<ChangeLog.Entry> entries) {
+        return entries.stream().map(ChangeLog.Entry::offset).toList();
+    }
+}
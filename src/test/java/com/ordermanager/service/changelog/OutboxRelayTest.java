@@ -0,0 +1,126 @@
+package com.ordermanager.service.changelog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.event.ProductChangedEvent;
+import com.ordermanager.model.OutboxEvent;
+import com.ordermanager.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // stands in for the outbox table: saved by the writer, read and deleted by the relay
+    private final List<OutboxEvent> outbox = new ArrayList<>();
+
+    private ChangeLog changeLog;
+    private OutboxWriter writer;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        changeLog = new ChangeLog(directory.toString(), 64 * 1024, 4);
+        writer = new OutboxWriter(outboxRepository, objectMapper);
+        relay = new OutboxRelay(outboxRepository, changeLog, objectMapper, transactionManager, 2);
+
+        when(outboxRepository.save(any(OutboxEvent.class))).thenAnswer(invocation -> {
+            OutboxEvent event = invocation.getArgument(0);
+            ReflectionTestUtils.setField(event, "eventId", UUID.randomUUID());
+            outbox.add(event);
+            return event;
+        });
+        when(outboxRepository.findAllByOrderByEventIdAsc(any(Limit.class))).thenAnswer(invocation -> {
+            Limit limit = invocation.getArgument(0);
+            return List.copyOf(outbox.subList(0, Math.min(limit.max(), outbox.size())));
+        });
+        doAnswer(invocation -> outbox.removeAll(invocation.getArgument(0)))
+                .when(outboxRepository).deleteAllInBatch(any());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        changeLog.close();
+    }
+
+    @Test
+    void shouldRelayOrderAndProductChangesInOutboxOrder() throws IOException {
+        UUID productId = UUID.randomUUID();
+        OrderSnapshot order = new OrderSnapshot(UUID.randomUUID(), LocalDateTime.of(2026, 3, 14, 10, 30), "NEW",
+                "card", new BigDecimal("20.00"), List.of(new OrderSnapshot.Line(productId, 2, new BigDecimal("20.00"))));
+
+        writer.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, productId, "Widget", "A widget"));
+        writer.onOrderChanged(OrderChangedEvent.created(order));
+        writer.onOrderChanged(OrderChangedEvent.deleted(order));
+
+        assertEquals(3, relay.relay());
+
+        assertTrue(outbox.isEmpty());
+        List<ChangeLog.Entry> entries = changeLog.read(0, 10);
+        assertEquals(3, entries.size());
+
+        JsonNode product = objectMapper.readTree(entries.get(0).payload());
+        assertEquals(OutboxWriter.PRODUCT, product.get("aggregateType").asText());
+        assertEquals(productId.toString(), product.get("aggregateId").asText());
+        assertEquals("Widget", product.get("data").get("name").asText());
+
+        JsonNode created = objectMapper.readTree(entries.get(1).payload());
+        assertEquals(OutboxWriter.ORDER, created.get("aggregateType").asText());
+        assertEquals("CREATED", created.get("changeType").asText());
+        assertEquals(2, created.get("data").get("after").get("lines").get(0).get("quantity").asInt());
+
+        JsonNode deleted = objectMapper.readTree(entries.get(2).payload());
+        assertEquals("DELETED", deleted.get("changeType").asText());
+        assertTrue(deleted.get("data").get("after").isNull());
+    }
+
+    @Test
+    void shouldKeepEventsInTheOutboxWhenTheLogRejectsThem() {
+        writer.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, UUID.randomUUID(), "x".repeat(70_000), null));
+
+        assertThrows(IllegalArgumentException.class, () -> relay.relay());
+
+        assertEquals(1, outbox.size());
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void shouldDoNothingWhenTheOutboxIsEmpty() {
+        assertEquals(0, relay.relay());
+        assertEquals(0, changeLog.endOffset());
+    }
+}
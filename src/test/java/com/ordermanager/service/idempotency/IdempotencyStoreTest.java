@@ -0,0 +1,214 @@
+package com.ordermanager.service.idempotency;
+
+import com.ordermanager.model.IdempotencyRecord;
+import com.ordermanager.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.time.ZoneOffset.UTC;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    private static final String BODY = "{\"status\":\"NEW\"}";
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyStore store;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new IdempotencyStore(recordRepository, transactionManager, 3600, 100, 2000);
+        when(recordRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void shouldRunOnceAndReplayRetriesFromTheCache() {
+        IdempotencyStore.Outcome first = store.execute("key-1", BODY, this::createOrder);
+        IdempotencyStore.Outcome retry = store.execute("key-1", BODY, this::createOrder);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertEquals(1, executions.get());
+        verify(recordRepository, times(1)).findById("key-1");
+        verify(recordRepository).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void shouldReplayAResponseStoredByAnEarlierInstance() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", BODY, LocalDateTime.now(UTC).plusHours(1))));
+
+        IdempotencyStore.Outcome outcome = store.execute("key-1", BODY, this::createOrder);
+
+        assertTrue(outcome.replayed());
+        assertEquals("{\"orderId\":\"stored\"}", outcome.response().body());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void shouldRunAgainOnceTheStoredResponseExpired() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", BODY, LocalDateTime.now(UTC).minusSeconds(1))));
+
+        IdempotencyStore.Outcome outcome = store.execute("key-1", BODY, this::createOrder);
+
+        assertFalse(outcome.replayed());
+        assertEquals(1, executions.get());
+        InOrder inOrder = inOrder(recordRepository);
+        inOrder.verify(recordRepository).deleteExpired(eq("key-1"), any(LocalDateTime.class));
+        inOrder.verify(recordRepository).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void shouldOnlyDeleteAKeyThatHasExpired() {
+        store.execute("key-1", BODY, this::createOrder);
+
+        verify(recordRepository, never()).deleteExpired(any(String.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldRejectTheKeyForADifferentRequest() {
+        store.execute("key-1", BODY, this::createOrder);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("key-1", "{\"status\":\"SHIPPED\"}", this::createOrder));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldNotStoreFailures() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute("key-1", BODY, () -> {
+            throw new IllegalArgumentException("Insufficient stock");
+        }));
+
+        IdempotencyStore.Outcome retry = store.execute("key-1", BODY, this::createOrder);
+
+        assertFalse(retry.replayed());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldRejectMissingOrOversizedKeys() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute(" ", BODY, this::createOrder));
+        assertThrows(IllegalArgumentException.class, () -> store.execute("k".repeat(256), BODY, this::createOrder));
+    }
+
+    @Test
+    void shouldMakeConcurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyStore.Outcome> first = executor.submit(() -> store.execute("key-1", BODY, () -> {
+                started.countDown();
+                await(release);
+                return createOrder();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Thread duplicate = new Thread(() -> {
+                IdempotencyStore.Outcome outcome = store.execute("key-1", BODY, this::createOrder);
+                assertTrue(outcome.replayed());
+            });
+            duplicate.start();
+            Thread.sleep(100);
+            assertTrue(duplicate.isAlive(), "duplicate should be waiting for the first execution");
+
+            release.countDown();
+            duplicate.join(5000);
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldGiveUpWaitingAfterTheTimeout() throws Exception {
+        store = new IdempotencyStore(recordRepository, transactionManager, 3600, 100, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> store.execute("key-1", BODY, () -> {
+                started.countDown();
+                await(release);
+                return createOrder();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IdempotencyKeyInProgressException.class, () -> store.execute("key-1", BODY, this::createOrder));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReplayTheWinnerWhenAnotherInstanceCommittedTheKeyFirst() {
+        when(recordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(recordRepository.findById("key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(record("key-1", BODY, LocalDateTime.now(UTC).plusHours(1))));
+
+        IdempotencyStore.Outcome outcome = store.execute("key-1", BODY, this::createOrder);
+
+        assertTrue(outcome.replayed());
+        assertEquals("{\"orderId\":\"stored\"}", outcome.response().body());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void shouldRethrowConstraintViolationWhenNoRecordWasCommitted() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("NULL not allowed for column \"SHIPPING_ADDRESS\"");
+        when(recordRepository.saveAndFlush(any())).thenThrow(violation);
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> store.execute("key-1", BODY, this::createOrder));
+
+        assertSame(violation, thrown);
+        verify(recordRepository, times(2)).findById("key-1");
+        verify(transactionManager).rollback(any());
+    }
+
+    private IdempotencyStore.StoredResponse createOrder() {
+        return new IdempotencyStore.StoredResponse(200, "{\"orderId\":\"" + executions.incrementAndGet() + "\"}");
+    }
+
+    private static IdempotencyRecord record(String key, String body, LocalDateTime expiresAt) {
+        return new IdempotencyRecord(key, IdempotencyStore.hash(body), 200, "{\"orderId\":\"stored\"}",
+                expiresAt.minusHours(2), expiresAt);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ordermanager.service.intake;
+
+import com.ordermanager.dto.OrderIntakeDTO;
+import com.ordermanager.model.Order;
+import com.ordermanager.model.OrderItem;
+import com.ordermanager.service.OrderService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderIntakeTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderIntake orderIntake;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderIntake = new OrderIntake(orderService, 3, 50, 60, 1000);
+    }
+
+    @Test
+    void shouldCommitQueuedOrdersInOneGroup() {
+        Order first = order();
+        Order second = order();
+        OrderIntakeDTO firstSubmission = orderIntake.submit(first);
+        OrderIntakeDTO secondSubmission = orderIntake.submit(second);
+        assertEquals(IntakeStatus.PENDING, orderIntake.getStatus(firstSubmission.getHandle()).getStatus());
+
+        when(orderService.createOrders(List.of(first, second))).thenAnswer(invocation -> List.of(
+                new OrderService.Outcome(saved(first), null),
+                new OrderService.Outcome(second, new IllegalArgumentException("Insufficient stock for product: Widget"))));
+
+        assertEquals(2, orderIntake.drain());
+
+        OrderIntakeDTO accepted = orderIntake.getStatus(firstSubmission.getHandle());
+        assertEquals(IntakeStatus.ACCEPTED, accepted.getStatus());
+        assertEquals(first.getOrderId(), accepted.getOrderId());
+
+        OrderIntakeDTO rejected = orderIntake.getStatus(secondSubmission.getHandle());
+        assertEquals(IntakeStatus.REJECTED, rejected.getStatus());
+        assertEquals("Insufficient stock for product: Widget", rejected.getMessage());
+        verify(orderService, times(1)).createOrders(any());
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void shouldFallBackToOneTransactionPerOrderWhenGroupFails() {
+        Order first = order();
+        Order second = order();
+        OrderIntakeDTO firstSubmission = orderIntake.submit(first);
+        OrderIntakeDTO secondSubmission = orderIntake.submit(second);
+
+        when(orderService.createOrders(any())).thenThrow(new IllegalStateException("Concurrent update detected"));
+        when(orderService.createOrder(first)).thenAnswer(invocation -> saved(first));
+        when(orderService.createOrder(second)).thenThrow(new IllegalStateException("Concurrent update detected"));
+
+        orderIntake.drain();
+
+        assertEquals(IntakeStatus.ACCEPTED, orderIntake.getStatus(firstSubmission.getHandle()).getStatus());
+        OrderIntakeDTO rejected = orderIntake.getStatus(secondSubmission.getHandle());
+        assertEquals(IntakeStatus.REJECTED, rejected.getStatus());
+        assertEquals("The order could not be created", rejected.getMessage());
+    }
+
+    @Test
+    void shouldRejectSubmissionsWhenQueueIsFull() {
+        orderIntake.submit(order());
+        orderIntake.submit(order());
+        orderIntake.submit(order());
+
+        assertThrows(RejectedExecutionException.class, () -> orderIntake.submit(order()));
+    }
+
+    @Test
+    void shouldThrowForUnknownHandle() {
+        assertThrows(EntityNotFoundException.class, () -> orderIntake.getStatus(UUID.randomUUID()));
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        OrderItem item = new OrderItem();
+        item.setProductName("Widget");
+        item.setQuantity(1);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        return order;
+    }
+
+    private static Order saved(Order order) {
+        order.setOrderId(UUID.randomUUID());
+        return order;
+    }
+}
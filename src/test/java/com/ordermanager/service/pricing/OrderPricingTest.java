@@ -0,0 +1,60 @@
+package com.ordermanager.service.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPricingTest {
+
+    private final OrderPricing pricing = new OrderPricing("USD");
+
+    @Test
+    void convertsAmountsToMinorUnitsAndBack() {
+        assertEquals(2, pricing.scale());
+        assertEquals(1999, pricing.toMinorUnits(new BigDecimal("19.99")));
+        assertEquals(2000, pricing.toMinorUnits(BigDecimal.valueOf(20)));
+        assertEquals(new BigDecimal("19.99"), pricing.toAmount(1999));
+    }
+
+    @Test
+    void roundsHalfUpToTheCurrencyScale() {
+        assertEquals(1000, pricing.toMinorUnits(new BigDecimal("9.995")));
+        assertEquals(999, pricing.toMinorUnits(new BigDecimal("9.994")));
+    }
+
+    @Test
+    void usesTheDecimalPlacesOfTheCurrency() {
+        OrderPricing yen = new OrderPricing("JPY");
+
+        assertEquals(0, yen.scale());
+        assertEquals(1500, yen.toMinorUnits(new BigDecimal("1500")));
+        assertEquals(new BigDecimal("1500"), yen.toAmount(1500));
+    }
+
+    @Test
+    void rejectsPricesFinerThanTheCurrency() {
+        OrderPricing yen = new OrderPricing("JPY");
+
+        assertEquals(1999, pricing.priceToMinorUnits(new BigDecimal("19.99")));
+        assertEquals(1999, pricing.priceToMinorUnits(new BigDecimal("19.9900")));
+        assertEquals(2000, yen.priceToMinorUnits(new BigDecimal("2000.00")));
+        assertThrows(IllegalArgumentException.class, () -> yen.priceToMinorUnits(new BigDecimal("19.99")));
+        assertThrows(IllegalArgumentException.class, () -> pricing.priceToMinorUnits(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void computesLineAndOrderTotals() {
+        long total = pricing.add(pricing.lineTotal(1999, 3), pricing.lineTotal(250, 2));
+
+        assertEquals(new BigDecimal("64.97"), pricing.toAmount(total));
+    }
+
+    @Test
+    void rejectsAmountsThatOverflow() {
+        assertThrows(IllegalArgumentException.class, () -> pricing.lineTotal(Long.MAX_VALUE / 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> pricing.add(Long.MAX_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> pricing.toMinorUnits(new BigDecimal("1e30")));
+    }
+}
@@ -0,0 +1,123 @@
+package com.ordermanager.service.search;
+
+import com.ordermanager.event.ChangeType;
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.event.ProductChangedEvent;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.OrderRepository;
+import com.ordermanager.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderSearchIndex searchIndex;
+
+    private Product keyboard;
+    private Product mouse;
+    private UUID keyboardOrder;
+    private UUID mouseOrder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchIndex = new OrderSearchIndex(productRepository, orderRepository, true);
+
+        keyboard = product("Mechanical Keyboard", "Clicky switches, USB-C");
+        mouse = product("Wireless Mouse", "Ergonomic, USB receiver");
+        keyboardOrder = UUID.randomUUID();
+        mouseOrder = UUID.randomUUID();
+
+        when(productRepository.findAll()).thenReturn(List.of(keyboard, mouse));
+        when(orderRepository.findAllOrderProductPairs()).thenReturn(List.of(
+                pair(keyboardOrder, keyboard.getProductId()), pair(mouseOrder, mouse.getProductId())));
+
+        searchIndex.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void shouldBeReadyAfterLoading() {
+        assertTrue(searchIndex.isReady());
+    }
+
+    @Test
+    void shouldFindOrdersBySubstringOfName() {
+        assertEquals(Set.of(keyboardOrder), searchIndex.search("Keyboard", null));
+        assertEquals(Set.of(), searchIndex.search("keyboard", null));
+    }
+
+    @Test
+    void shouldRequireNameAndDescriptionToMatchTheSameProduct() {
+        assertEquals(Set.of(keyboardOrder, mouseOrder), searchIndex.search(null, "USB"));
+        assertEquals(Set.of(mouseOrder), searchIndex.search("Mouse", "USB"));
+        assertEquals(Set.of(), searchIndex.search("Mouse", "Clicky"));
+    }
+
+    @Test
+    void shouldMatchTermsShorterThanATrigram() {
+        assertEquals(Set.of(mouseOrder), searchIndex.search("Wi", null));
+    }
+
+    @Test
+    void shouldFollowProductUpdates() {
+        searchIndex.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, mouse.getProductId(), "Trackball", "Ergonomic"));
+
+        assertEquals(Set.of(), searchIndex.search("Mouse", null));
+        assertEquals(Set.of(mouseOrder), searchIndex.search("Trackball", null));
+    }
+
+    @Test
+    void shouldFollowOrderChanges() {
+        UUID newOrder = UUID.randomUUID();
+        searchIndex.onOrderChanged(OrderChangedEvent.created(snapshot(newOrder, keyboard.getProductId())));
+        searchIndex.onOrderChanged(OrderChangedEvent.deleted(snapshot(keyboardOrder, keyboard.getProductId())));
+
+        assertEquals(Set.of(newOrder), searchIndex.search("Keyboard", null));
+    }
+
+    private static Product product(String name, String description) {
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(BigDecimal.TEN);
+        return product;
+    }
+
+    private static OrderRepository.OrderProductPair pair(UUID orderId, UUID productId) {
+        return new OrderRepository.OrderProductPair() {
+            @Override
+            public UUID getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public UUID getProductId() {
+                return productId;
+            }
+        };
+    }
+
+    private static OrderSnapshot snapshot(UUID orderId, UUID productId) {
+        return new OrderSnapshot(orderId, LocalDateTime.now(), "NEW", "card", BigDecimal.TEN,
+                List.of(new OrderSnapshot.Line(productId, 1, BigDecimal.TEN)));
+    }
+}
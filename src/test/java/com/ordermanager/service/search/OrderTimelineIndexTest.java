@@ -0,0 +1,96 @@
+package com.ordermanager.service.search;
+
+import com.ordermanager.event.OrderChangedEvent;
+import com.ordermanager.event.OrderSnapshot;
+import com.ordermanager.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderTimelineIndexTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderTimelineIndex timelineIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(orderRepository.findAllTimelineEntries()).thenReturn(List.of());
+
+        timelineIndex = new OrderTimelineIndex(orderRepository, true);
+        timelineIndex.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void shouldStreamOrdersWithinRangeOldestFirst() {
+        UUID late = create("2024-05-01T12:30:00");
+        UUID early = create("2024-05-01T09:15:00");
+        create("2024-05-02T00:00:01");
+
+        List<UUID> orderIds = timelineIndex.stream(LocalDateTime.parse("2024-05-01T00:00:00"), LocalDateTime.parse("2024-05-01T23:59:59"))
+                .map(OrderTimelineIndex.Entry::orderId)
+                .toList();
+
+        assertEquals(List.of(early, late), orderIds);
+    }
+
+    @Test
+    void shouldPageAfterAnEntry() {
+        UUID first = create("2024-05-01T09:00:00");
+        UUID second = create("2024-05-01T10:00:00");
+        UUID third = create("2024-05-01T11:00:00");
+        LocalDateTime from = LocalDateTime.parse("2024-05-01T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2024-05-01T23:59:59");
+
+        List<OrderTimelineIndex.Entry> page = timelineIndex.page(from, to, null, 2);
+        assertEquals(List.of(first, second), page.stream().map(OrderTimelineIndex.Entry::orderId).toList());
+
+        List<OrderTimelineIndex.Entry> next = timelineIndex.page(from, to, page.get(1), 2);
+        assertEquals(List.of(third), next.stream().map(OrderTimelineIndex.Entry::orderId).toList());
+    }
+
+    @Test
+    void shouldCountWholeAndPartialBuckets() {
+        create("2024-05-01T09:00:00");
+        create("2024-05-01T09:45:00");
+        create("2024-05-01T10:10:00");
+        create("2024-05-02T08:00:00");
+
+        assertEquals(3, timelineIndex.count(LocalDateTime.parse("2024-05-01T00:00:00"), LocalDateTime.parse("2024-05-01T23:59:59")));
+        assertEquals(2, timelineIndex.count(LocalDateTime.parse("2024-05-01T09:30:00"), LocalDateTime.parse("2024-05-01T10:30:00")));
+
+        Map<LocalDateTime, Long> perDay = timelineIndex.countByBucket(
+                LocalDateTime.parse("2024-05-01T00:00:00"), LocalDateTime.parse("2024-05-02T23:59:59"), TimeBucket.DAY);
+        assertEquals(Map.of(LocalDateTime.parse("2024-05-01T00:00:00"), 3L, LocalDateTime.parse("2024-05-02T00:00:00"), 1L), perDay);
+    }
+
+    @Test
+    void shouldForgetDeletedOrders() {
+        UUID orderId = create("2024-05-01T09:00:00");
+        timelineIndex.onOrderChanged(OrderChangedEvent.deleted(snapshot(orderId, "2024-05-01T09:00:00")));
+
+        assertEquals(0, timelineIndex.count(LocalDateTime.parse("2024-05-01T00:00:00"), LocalDateTime.parse("2024-05-01T23:59:59")));
+    }
+
+    private UUID create(String createdAt) {
+        UUID orderId = UUID.randomUUID();
+        timelineIndex.onOrderChanged(OrderChangedEvent.created(snapshot(orderId, createdAt)));
+        return orderId;
+    }
+
+    private static OrderSnapshot snapshot(UUID orderId, String createdAt) {
+        return new OrderSnapshot(orderId, LocalDateTime.parse(createdAt), "NEW", "card", BigDecimal.ZERO, List.of());
+    }
+}
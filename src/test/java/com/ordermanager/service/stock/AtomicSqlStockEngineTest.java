@@ -0,0 +1,71 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AtomicSqlStockEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private AtomicSqlStockEngine stockEngine;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName("Test Product");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setInventoryCount(3);
+    }
+
+    @Test
+    void shouldReserveWithConditionalUpdate() {
+        when(productRepository.decrementInventory(product.getProductId(), 2)).thenReturn(1);
+
+        stockEngine.reserve(product, 2);
+
+        verify(productRepository).decrementInventory(product.getProductId(), 2);
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldRejectReservationWhenNoRowWasUpdated() {
+        when(productRepository.decrementInventory(product.getProductId(), 5)).thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class, () -> stockEngine.reserve(product, 5));
+    }
+
+    @Test
+    void shouldRelease() {
+        when(productRepository.incrementInventory(product.getProductId(), 2)).thenReturn(1);
+
+        stockEngine.release(product, 2);
+
+        verify(productRepository).incrementInventory(product.getProductId(), 2);
+    }
+
+    @Test
+    void shouldThrowWhenReleasingUnknownProduct() {
+        when(productRepository.incrementInventory(product.getProductId(), 2)).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> stockEngine.release(product, 2));
+    }
+}
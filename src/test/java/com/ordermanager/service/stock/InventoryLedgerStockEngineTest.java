@@ -0,0 +1,156 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.model.StockLedgerEntry;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.repository.StockLedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InventoryLedgerStockEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockLedgerEntryRepository ledgerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryLedgerStockEngine stockEngine;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stockEngine = new InventoryLedgerStockEngine(productRepository, ledgerRepository, transactionManager);
+
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName("Test Product");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setInventoryCount(3);
+
+        when(ledgerRepository.findCurrentStock(product.getProductId())).thenReturn(Optional.of(3L));
+    }
+
+    @Test
+    void shouldReserveInMemoryAndRecordEntry() {
+        stockEngine.reserve(product, 2);
+
+        assertEquals(1, stockEngine.availableStock(product.getProductId()));
+        ArgumentCaptor<StockLedgerEntry> entry = ArgumentCaptor.forClass(StockLedgerEntry.class);
+        verify(ledgerRepository).save(entry.capture());
+        assertEquals(-2, entry.getValue().getDelta());
+        verify(productRepository, never()).save(any());
+        verify(ledgerRepository, times(1)).findCurrentStock(product.getProductId());
+    }
+
+    @Test
+    void shouldNeverReserveMoreThanAvailable() {
+        stockEngine.reserve(product, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> stockEngine.reserve(product, 1));
+        assertEquals(0, stockEngine.availableStock(product.getProductId()));
+    }
+
+    @Test
+    void shouldMakeReleasedStockAvailableAgain() {
+        stockEngine.reserve(product, 3);
+        stockEngine.release(product, 2);
+
+        assertEquals(2, stockEngine.availableStock(product.getProductId()));
+    }
+
+    @Test
+    void shouldKeepUnitsOfAnUncommittedReservationAcrossAnOverwrite() {
+        // Reserve 2 in a transaction that is still open when the count is overwritten
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> reservation;
+        try {
+            stockEngine.reserve(product, 2);
+            reservation = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Its entry is not committed yet, so the overwrite only sees the stored 3
+        when(ledgerRepository.findStockLevelAsStored(product.getProductId())).thenReturn(Optional.of(stockLevel(3, 0)));
+        product.setInventoryCount(10);
+        stockEngine.onStockOverwritten(product);
+        reservation.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // 10 stored plus the reservation's -2 once it commits
+        assertEquals(8, stockEngine.availableStock(product.getProductId()));
+        verify(ledgerRepository, times(1)).findCurrentStock(product.getProductId());
+    }
+
+    @Test
+    void shouldCancelPendingEntriesOnOverwrite() {
+        when(ledgerRepository.findStockLevelAsStored(product.getProductId())).thenReturn(Optional.of(stockLevel(5, -2)));
+        product.setInventoryCount(7);
+
+        stockEngine.onStockOverwritten(product);
+
+        ArgumentCaptor<StockLedgerEntry> entry = ArgumentCaptor.forClass(StockLedgerEntry.class);
+        verify(ledgerRepository).save(entry.capture());
+        assertEquals(2, entry.getValue().getDelta());
+        assertEquals(7, stockEngine.availableStock(product.getProductId()));
+        verify(ledgerRepository, never()).findCurrentStock(any());
+    }
+
+    @Test
+    void shouldFlushClaimedDeltasToProducts() {
+        StockLedgerEntryRepository.ProductDelta delta = mock(StockLedgerEntryRepository.ProductDelta.class);
+        when(delta.getProductId()).thenReturn(product.getProductId());
+        when(delta.getDelta()).thenReturn(-2L);
+        when(ledgerRepository.claimUnflushed(any())).thenReturn(2);
+        when(ledgerRepository.sumByFlushBatch(any())).thenReturn(List.of(delta));
+
+        stockEngine.flush();
+
+        verify(productRepository).incrementInventory(product.getProductId(), -2);
+        verify(ledgerRepository).deleteByFlushBatch(any());
+    }
+
+    @Test
+    void shouldSkipFlushWhenNothingIsPending() {
+        when(ledgerRepository.claimUnflushed(any())).thenReturn(0);
+
+        stockEngine.flush();
+
+        verify(ledgerRepository, never()).sumByFlushBatch(any());
+        verify(productRepository, never()).incrementInventory(any(), anyInt());
+    }
+
+    private static StockLedgerEntryRepository.StockLevel stockLevel(int inventoryCount, long pending) {
+        return new StockLedgerEntryRepository.StockLevel() {
+            @Override
+            public int getInventoryCount() {
+                return inventoryCount;
+            }
+
+            @Override
+            public long getPending() {
+                return pending;
+            }
+        };
+    }
+}
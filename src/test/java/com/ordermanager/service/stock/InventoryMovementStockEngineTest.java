@@ -0,0 +1,225 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.InventoryMovement;
+import com.ordermanager.model.InventorySnapshot;
+import com.ordermanager.model.MovementType;
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.InventoryMovementRepository;
+import com.ordermanager.repository.InventorySnapshotRepository;
+import com.ordermanager.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InventoryMovementStockEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryMovementRepository movementRepository;
+
+    @Mock
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryMovementStockEngine stockEngine;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stockEngine = new InventoryMovementStockEngine(productRepository, movementRepository, snapshotRepository,
+                transactionManager, 100);
+
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName("Test Product");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setInventoryCount(3);
+
+        InventoryMovementRepository.StockLevel level = stockLevel(null, 3, 0);
+        when(movementRepository.findStockLevel(product.getProductId())).thenReturn(Optional.of(level));
+        when(snapshotRepository.save(any(InventorySnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldReserveInMemoryAndRecordMovement() {
+        stockEngine.reserve(product, 2);
+
+        assertEquals(1, stockEngine.availableStock(product.getProductId()));
+        ArgumentCaptor<InventoryMovement> movement = ArgumentCaptor.forClass(InventoryMovement.class);
+        verify(movementRepository).save(movement.capture());
+        assertEquals(MovementType.RESERVE, movement.getValue().getType());
+        assertEquals(-2, movement.getValue().getDelta());
+        verify(productRepository, never()).save(any());
+        verify(movementRepository, times(1)).findStockLevel(product.getProductId());
+    }
+
+    @Test
+    void shouldNeverReserveMoreThanAvailable() {
+        stockEngine.reserve(product, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> stockEngine.reserve(product, 1));
+        assertEquals(0, stockEngine.availableStock(product.getProductId()));
+    }
+
+    @Test
+    void shouldMakeReleasedStockAvailableAgain() {
+        stockEngine.reserve(product, 3);
+        stockEngine.release(product, 2);
+
+        assertEquals(2, stockEngine.availableStock(product.getProductId()));
+        ArgumentCaptor<InventoryMovement> movements = ArgumentCaptor.forClass(InventoryMovement.class);
+        verify(movementRepository, times(2)).save(movements.capture());
+        assertEquals(MovementType.RELEASE, movements.getAllValues().get(1).getType());
+    }
+
+    @Test
+    void shouldPinOpeningStockAndRecordRestockOnOverwrite() {
+        // 3 in inventory_count, 1 reserved since, overwritten to 10
+        InventoryMovementRepository.StockLevel stored = stockLevel(null, 3, -1);
+        when(movementRepository.findStockLevelAsStored(product.getProductId())).thenReturn(Optional.of(stored));
+        product.setInventoryCount(10);
+
+        stockEngine.onStockOverwritten(product);
+
+        ArgumentCaptor<InventorySnapshot> snapshot = ArgumentCaptor.forClass(InventorySnapshot.class);
+        verify(snapshotRepository).save(snapshot.capture());
+        assertEquals(3, snapshot.getValue().getStock());
+        ArgumentCaptor<InventoryMovement> movement = ArgumentCaptor.forClass(InventoryMovement.class);
+        verify(movementRepository).save(movement.capture());
+        assertEquals(MovementType.RESTOCK, movement.getValue().getType());
+        assertEquals(8, movement.getValue().getDelta());
+    }
+
+    @Test
+    void shouldRecordAdjustmentAgainstLatestSnapshot() {
+        InventoryMovementRepository.StockLevel stored = stockLevel(5L, 3, 0);
+        when(movementRepository.findStockLevelAsStored(product.getProductId())).thenReturn(Optional.of(stored));
+        product.setInventoryCount(2);
+
+        stockEngine.onStockOverwritten(product);
+
+        verify(snapshotRepository, never()).save(any());
+        ArgumentCaptor<InventoryMovement> movement = ArgumentCaptor.forClass(InventoryMovement.class);
+        verify(movementRepository).save(movement.capture());
+        assertEquals(MovementType.ADJUST, movement.getValue().getType());
+        assertEquals(-3, movement.getValue().getDelta());
+    }
+
+    @Test
+    void shouldApplyOverwriteToTheCounterHeldByInFlightOrders() {
+        // A reservation and a release are both still uncommitted when the count is overwritten
+        List<TransactionSynchronization> inFlight = inTransaction(() -> {
+            stockEngine.reserve(product, 2);
+            stockEngine.release(product, 1);
+        });
+
+        when(movementRepository.findStockLevelAsStored(product.getProductId())).thenReturn(Optional.of(stockLevel(3L, 3, 0)));
+        product.setInventoryCount(10);
+        stockEngine.onStockOverwritten(product);
+        inFlight.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // 10 stored, then -2 and +1 once their movements commit
+        assertEquals(9, stockEngine.availableStock(product.getProductId()));
+        verify(movementRepository, times(1)).findStockLevel(product.getProductId());
+    }
+
+    @Test
+    void shouldFoldClaimedMovementsIntoNewSnapshot() {
+        InventorySnapshot previous = InventorySnapshot.opening(product.getProductId(), 7);
+        InventoryMovementRepository.ProductDelta delta = mock(InventoryMovementRepository.ProductDelta.class);
+        when(delta.getProductId()).thenReturn(product.getProductId());
+        when(delta.getDelta()).thenReturn(-2L);
+        when(delta.getMovements()).thenReturn(3L);
+        when(movementRepository.claimUnsnapshotted(any())).thenReturn(3);
+        when(movementRepository.sumBySnapshotBatch(any())).thenReturn(List.of(delta));
+        when(snapshotRepository.findFirstByProductIdOrderBySnapshotIdDesc(product.getProductId())).thenReturn(Optional.of(previous));
+
+        stockEngine.snapshot();
+
+        ArgumentCaptor<InventorySnapshot> snapshot = ArgumentCaptor.forClass(InventorySnapshot.class);
+        verify(snapshotRepository).save(snapshot.capture());
+        assertEquals(5, snapshot.getValue().getStock());
+        assertEquals(7, snapshot.getValue().getOpeningStock());
+        assertEquals(3, snapshot.getValue().getMovementCount());
+        assertNotNull(snapshot.getValue().getSnapshotBatch());
+        verify(snapshotRepository).deleteOlderThan(eq(product.getProductId()), any());
+    }
+
+    @Test
+    void shouldSkipSnapshotWhenNothingIsPending() {
+        when(movementRepository.claimUnsnapshotted(any())).thenReturn(0);
+
+        stockEngine.snapshot();
+
+        verify(movementRepository, never()).sumBySnapshotBatch(any());
+        verify(snapshotRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldFlagReplayThatDisagreesWithSnapshot() {
+        InventoryMovementRepository.Replay replay = mock(InventoryMovementRepository.Replay.class);
+        when(replay.getStock()).thenReturn(4L);
+        when(replay.getReplayed()).thenReturn(5L);
+        when(movementRepository.replay(product.getProductId())).thenReturn(Optional.of(replay));
+
+        assertFalse(stockEngine.reconcile(product.getProductId()).isConsistent());
+
+        when(replay.getReplayed()).thenReturn(4L);
+        assertTrue(stockEngine.reconcile(product.getProductId()).isConsistent());
+    }
+
+    @Test
+    void shouldRejectHistoryLimitOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> stockEngine.history(product.getProductId(), 0));
+        assertThrows(IllegalArgumentException.class, () -> stockEngine.history(product.getProductId(), 101));
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static InventoryMovementRepository.StockLevel stockLevel(Long snapshotStock, int inventoryCount, long pending) {
+        return new InventoryMovementRepository.StockLevel() {
+            @Override
+            public Long getSnapshotStock() {
+                return snapshotStock;
+            }
+
+            @Override
+            public int getInventoryCount() {
+                return inventoryCount;
+            }
+
+            @Override
+            public long getPending() {
+                return pending;
+            }
+        };
+    }
+}
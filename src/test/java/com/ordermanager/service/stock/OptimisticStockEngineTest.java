@@ -0,0 +1,63 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loses a real optimistic-lock race against H2: another transaction commits a stock change between this
+ * transaction's read and its commit.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:optimistic-stock;DB_CLOSE_DELAY=-1",
+        "order-manager.stock.engine=optimistic"
+})
+class OptimisticStockEngineTest {
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldCountConflictThatSurfacesAtCommit() {
+        Product product = new Product();
+        product.setName("Contended Product");
+        product.setPrice(BigDecimal.valueOf(10));
+        product.setInventoryCount(10);
+        UUID productId = productRepository.save(product).getProductId();
+        double conflictsBefore = meterRegistry.counter("order-manager.stock.conflicts").count();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> transaction.executeWithoutResult(status -> {
+            Product loaded = productRepository.findById(productId).orElseThrow();
+            concurrent.executeWithoutResult(inner -> productRepository.incrementInventory(productId, 5));
+            stockEngine.reserve(loaded, 2);
+        }));
+
+        assertEquals(conflictsBefore + 1, meterRegistry.counter("order-manager.stock.conflicts").count());
+        assertEquals(15, productRepository.findById(productId).orElseThrow().getInventoryCount());
+    }
+}
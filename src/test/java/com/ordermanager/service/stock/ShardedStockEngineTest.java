@@ -0,0 +1,114 @@
+package com.ordermanager.service.stock;
+
+import com.ordermanager.model.Product;
+import com.ordermanager.model.ProductStockShard;
+import com.ordermanager.repository.ProductRepository;
+import com.ordermanager.repository.ProductStockShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ShardedStockEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductStockShardRepository shardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShardedStockEngine stockEngine;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stockEngine = new ShardedStockEngine(productRepository, shardRepository, transactionManager, 2);
+
+        product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName("Test Product");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setInventoryCount(5);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSplitStockIntoShardsOnFirstUse() {
+        when(shardRepository.existsByProductId(product.getProductId())).thenReturn(false);
+        when(productRepository.findForUpdate(product.getProductId())).thenReturn(Optional.of(product));
+        when(shardRepository.decrementShard(eq(product.getProductId()), anyInt(), eq(1))).thenReturn(1);
+
+        stockEngine.reserve(product, 1);
+
+        ArgumentCaptor<List<ProductStockShard>> shards = ArgumentCaptor.forClass(List.class);
+        verify(shardRepository).saveAll(shards.capture());
+        assertEquals(List.of(3, 2), shards.getValue().stream().map(ProductStockShard::getQuantity).toList());
+        assertEquals(0, product.getInventoryCount());
+    }
+
+    @Test
+    void shouldDrainSeveralShardsWhenNoneHoldsTheWholeQuantity() {
+        when(shardRepository.existsByProductId(product.getProductId())).thenReturn(true);
+        when(shardRepository.decrementShard(eq(product.getProductId()), anyInt(), eq(4))).thenReturn(0);
+        when(shardRepository.findByProductIdOrderByShardIndex(product.getProductId()))
+                .thenReturn(List.of(new ProductStockShard(product.getProductId(), 0, 3), new ProductStockShard(product.getProductId(), 1, 2)));
+        when(shardRepository.decrementShard(product.getProductId(), 0, 3)).thenReturn(1);
+        when(shardRepository.decrementShard(product.getProductId(), 1, 1)).thenReturn(1);
+
+        stockEngine.reserve(product, 4);
+
+        verify(shardRepository, never()).incrementShard(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGiveBackPartialTakesWhenStockIsInsufficient() {
+        when(shardRepository.existsByProductId(product.getProductId())).thenReturn(true);
+        when(shardRepository.decrementShard(eq(product.getProductId()), anyInt(), eq(9))).thenReturn(0);
+        when(shardRepository.findByProductIdOrderByShardIndex(product.getProductId()))
+                .thenReturn(List.of(new ProductStockShard(product.getProductId(), 0, 3), new ProductStockShard(product.getProductId(), 1, 2)));
+        when(shardRepository.decrementShard(product.getProductId(), 0, 3)).thenReturn(1);
+        when(shardRepository.decrementShard(product.getProductId(), 1, 2)).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class, () -> stockEngine.reserve(product, 9));
+
+        verify(shardRepository).incrementShard(product.getProductId(), 0, 3);
+        verify(shardRepository).incrementShard(product.getProductId(), 1, 2);
+    }
+
+    @Test
+    void shouldReportSumOfShards() {
+        product.setInventoryCount(0);
+        when(shardRepository.sumQuantity(product.getProductId())).thenReturn(7L);
+
+        assertEquals(7, stockEngine.availableStock(product));
+    }
+
+    @Test
+    void shouldRedistributeOverwrittenStock() {
+        List<ProductStockShard> shards = List.of(
+                new ProductStockShard(product.getProductId(), 0, 0), new ProductStockShard(product.getProductId(), 1, 9));
+        when(shardRepository.findForUpdate(product.getProductId())).thenReturn(shards);
+        product.setInventoryCount(11);
+
+        stockEngine.onStockOverwritten(product);
+
+        assertEquals(List.of(6, 5), shards.stream().map(ProductStockShard::getQuantity).toList());
+        assertEquals(0, product.getInventoryCount());
+    }
+}
@@ -0,0 +1,33 @@
+package com.ordermanager.web;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers on the number of SQL statements a request ran, as counted by {@link QueryBudgetInterceptor}.
+ */
+public final class QueryCountMatchers {
+
+    private QueryCountMatchers() {
+    }
+
+    public static ResultMatcher queryCount(int expected) {
+        return result -> assertThat(queryCountOf(result))
+                .as("SQL statements run by %s", result.getRequest().getRequestURI())
+                .isEqualTo(expected);
+    }
+
+    public static ResultMatcher queryCountAtMost(int max) {
+        return result -> assertThat(queryCountOf(result))
+                .as("SQL statements run by %s", result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(max);
+    }
+
+    public static int queryCountOf(MvcResult result) {
+        Object count = result.getRequest().getAttribute(QueryBudgetInterceptor.QUERY_COUNT_ATTRIBUTE);
+        assertThat(count).as("query count recorded for the request").isInstanceOf(Integer.class);
+        return (Integer) count;
+    }
+}
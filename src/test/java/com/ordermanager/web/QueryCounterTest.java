@@ -0,0 +1,63 @@
+package com.ordermanager.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCounterTest {
+
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.Scope scope = QueryCounter.current();
+        if (scope != null) {
+            scope.close();
+        }
+    }
+
+    @Test
+    void shouldIgnoreStatementsOutsideAScope() {
+        assertThat(queryCounter.inspect("select 1")).isEqualTo("select 1");
+        assertThat(QueryCounter.current()).isNull();
+    }
+
+    @Test
+    void shouldCountStatementsAndReportTheMostRepeated() {
+        try (QueryCounter.Scope scope = QueryCounter.open(5, false)) {
+            queryCounter.inspect("select o from orders");
+            for (int i = 0; i < 3; i++) {
+                queryCounter.inspect("select i from order_item where order_id=?");
+            }
+
+            assertThat(scope.count()).isEqualTo(4);
+            assertThat(scope.overBudget()).isFalse();
+            assertThat(scope.mostRepeated().getKey()).isEqualTo("select i from order_item where order_id=?");
+            assertThat(scope.mostRepeated().getValue()).isEqualTo(3);
+        }
+        assertThat(QueryCounter.current()).isNull();
+    }
+
+    @Test
+    void shouldOnlyFlagOverBudgetInLogMode() {
+        try (QueryCounter.Scope scope = QueryCounter.open(1, false)) {
+            queryCounter.inspect("select 1");
+            queryCounter.inspect("select 2");
+
+            assertThat(scope.overBudget()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldFailTheStatementThatExceedsTheBudgetInFailMode() {
+        try (QueryCounter.Scope scope = QueryCounter.open(1, true)) {
+            queryCounter.inspect("select 1");
+
+            assertThatThrownBy(() -> queryCounter.inspect("select 2"))
+                    .isInstanceOf(QueryBudgetExceededException.class)
+                    .hasMessageContaining("select 2");
+        }
+    }
+}